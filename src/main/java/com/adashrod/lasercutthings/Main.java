@@ -1,11 +1,16 @@
 package com.adashrod.lasercutthings;
 
 import com.adashrod.lasercutthings.cuttingboardgrids.CuttingBoard;
+import com.adashrod.lasercutthings.mazes.MazeBatchRunner;
 import com.adashrod.lasercutthings.mazes.MazePrinter;
 import com.adashrod.lasercutthings.mazes.algorithms.PrimsAlgorithm;
+import com.adashrod.lasercutthings.mazes.analysis.MazeAnalyzer;
 import com.adashrod.lasercutthings.mazes.factories.LinearWallModelGenerator;
+import com.adashrod.lasercutthings.mazes.factories.PortfolioTilingStrategy;
 import com.adashrod.lasercutthings.mazes.factories.RectangularWallModelGenerator;
 import com.adashrod.lasercutthings.mazes.factories.SheetWallModelGenerator;
+import com.adashrod.lasercutthings.mazes.factories.TilingBenchmark;
+import com.adashrod.lasercutthings.mazes.factories.TilingStrategy;
 import com.adashrod.lasercutthings.mazes.models.CalibrationRectangle;
 import com.adashrod.lasercutthings.mazes.models.LinearWallModel;
 import com.adashrod.lasercutthings.mazes.models.Maze;
@@ -14,9 +19,9 @@ import com.adashrod.lasercutthings.mazes.models.SheetWallModel;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
 
 import static com.adashrod.lasercutthings.common.Unit.INCHES;
-import static com.adashrod.lasercutthings.mazes.Direction.WEST;
 
 /**
  * Created by aaron on 2018-04-01.
@@ -54,7 +59,92 @@ public final class Main {
         System.out.printf("took %d ms to gen svg\n", System.currentTimeMillis() - start);
     }
 
+    private static SheetWallModelGenerator.Config mazeSheetConfig(final boolean multipleSheets) {
+        return mazeSheetConfig(multipleSheets, TilingStrategy.COLUMNS);
+    }
+
+    private static SheetWallModelGenerator.Config mazeSheetConfig(final boolean multipleSheets,
+            final TilingStrategy tilingStrategy) {
+        return SheetWallModelGenerator.configure()
+            .withUnit(INCHES)
+            .withMaterialThickness(new BigDecimal(".118"))
+            .withHallWidth(new BigDecimal(".5"))
+            .withSeparationSpace(new BigDecimal(".05"))
+            .withWallHeight(new BigDecimal(".15"))
+            .withNotchHeight(new BigDecimal(".2"))
+            .withMaxWidth(new BigDecimal("19.5"))
+            .withMaxHeight(new BigDecimal("11"))
+            .withMultipleSheets(multipleSheets)
+            .withTilingStrategy(tilingStrategy)
+            .build();
+    }
+
+    /**
+     * usage: batch firstSeed lastSeed numCols numRows outputDirectory [numThreads [tilingBudgetMs [wallTemplates]]]
+     * With tilingBudgetMs, each maze is tiled with a {@link PortfolioTilingStrategy} that has that much time. With
+     * wallTemplates "true", the SVGs use {@link MazePrinter#useWallTemplates}.
+     */
+    private static void printMazeBatch(final String... args) throws InterruptedException {
+        if (args.length < 6) {
+            throw new IllegalArgumentException(
+                "usage: batch firstSeed lastSeed numCols numRows outputDirectory " +
+                "[numThreads [tilingBudgetMs [wallTemplates]]]");
+        }
+        final TilingStrategy tilingStrategy = args.length > 7 ?
+            new PortfolioTilingStrategy(Long.parseLong(args[7]), TimeUnit.MILLISECONDS) : TilingStrategy.COLUMNS;
+        final MazeBatchRunner.Builder builder = MazeBatchRunner.configure()
+            .withSeedRange(Long.parseLong(args[1]), Long.parseLong(args[2]))
+            .withSize(Integer.parseInt(args[3]), Integer.parseInt(args[4]))
+            .withOutputDirectory(args[5])
+            .withSheetConfig(mazeSheetConfig(true, tilingStrategy));
+        if (args.length > 6) {
+            builder.withThreads(Integer.parseInt(args[6]));
+        }
+        if (args.length > 8) {
+            builder.withWallTemplates(Boolean.parseBoolean(args[8]));
+        }
+        final MazeBatchRunner.Report report = builder.build().run();
+        System.out.print(report);
+        if (report.firstFailure != null) {
+            report.firstFailure.printStackTrace();
+        }
+    }
+
+    /**
+     * usage: tiling numMazes [numCols numRows ...]
+     */
+    private static void benchmarkTiling(final String... args) {
+        if (args.length < 2 || args.length % 2 != 0) {
+            throw new IllegalArgumentException("usage: tiling numMazes [numCols numRows ...]");
+        }
+        final int[] defaultSizes = {8, 8, 16, 10, 24, 14, 30, 17};
+        final int[] sizes = args.length > 2 ? new int[args.length - 2] : defaultSizes;
+        for (int i = 2; i < args.length; i++) {
+            sizes[i - 2] = Integer.parseInt(args[i]);
+        }
+        final TilingBenchmark benchmark = new TilingBenchmark(SheetWallModelGenerator.configure()
+            .withUnit(INCHES)
+            .withMaterialThickness(new BigDecimal(".118"))
+            .withHallWidth(new BigDecimal(".5"))
+            .withSeparationSpace(new BigDecimal(".05"))
+            .withWallHeight(new BigDecimal(".15"))
+            .withNotchHeight(new BigDecimal(".2"))
+            .withMaxWidth(new BigDecimal("19.5"))
+            .withMaxHeight(new BigDecimal("11")), Integer.parseInt(args[1]));
+        for (int i = 0; i < sizes.length; i += 2) {
+            System.out.print(benchmark.run(sizes[i], sizes[i + 1]));
+        }
+    }
+
     public static void main(final String... args) throws Exception {
+        if (args.length > 0 && "batch".equals(args[0])) {
+            printMazeBatch(args);
+            return;
+        }
+        if (args.length > 0 && "tiling".equals(args[0])) {
+            benchmarkTiling(args);
+            return;
+        }
         final Maze maze = new Maze(12, 12);
         final LinearWallModel linearWallModel;
         final RectangularWallModel rectangularWallModel;
@@ -62,22 +152,13 @@ public final class Main {
 
         final long seed = System.currentTimeMillis();
         maze.build(new PrimsAlgorithm().setSeed(seed));
-        maze.getGrid()[0][0].openWall(WEST);
+        new MazeAnalyzer(maze).openEntranceAndExit();
         System.out.printf("seed: %d\n", seed);
         new MazePrinter(maze).printAsciiArt();
         linearWallModel = new LinearWallModelGenerator(maze).generate();
         new MazePrinter(linearWallModel).printTestSvg("actualTestMaze.svg");
         rectangularWallModel = new RectangularWallModelGenerator(linearWallModel).generate();
-        sheetWallModel = new SheetWallModelGenerator(rectangularWallModel, SheetWallModelGenerator.configure()
-            .withUnit(INCHES)
-            .withMaterialThickness(new BigDecimal(".118"))
-            .withHallWidth(new BigDecimal(".5"))
-            .withSeparationSpace(new BigDecimal(".05"))
-            .withWallHeight(new BigDecimal(".15"))
-            .withNotchHeight(new BigDecimal(".2"))
-            .withMaxWidth(new BigDecimal("19.5"))
-            .withMaxHeight(new BigDecimal("11"))
-            .build()).generate();
+        sheetWallModel = new SheetWallModelGenerator(rectangularWallModel, mazeSheetConfig(false)).generate();
         // todo: add a unit param to MP ctor?
         new MazePrinter(sheetWallModel, new BigDecimal("19.5").multiply(INCHES.getPixelsPer()), new BigDecimal("11").multiply(INCHES.getPixelsPer())).printSvg("actualTestMazeCuts.svg",
             CalibrationRectangle.configure()
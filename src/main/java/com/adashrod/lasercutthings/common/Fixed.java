@@ -0,0 +1,80 @@
+package com.adashrod.lasercutthings.common;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Helpers for fixed-point numbers: a length is stored in a long as a whole number of 1e-12 px. Sums, differences,
+ * comparisons and multiples by integers are exact long arithmetic and allocate nothing; only converting from and to
+ * {@link BigDecimal} (when reading a config and when writing a file) goes through decimals.
+ * Every config value in inches, cm or mm with up to 3 decimal places times {@link Unit#getPixelsPer()} fits exactly.
+ * A long of these units can hold lengths up to about 9.2 million px (100,000 inches), and nothing checks for overflow.
+ * @author adashrod@gmail.com
+ */
+public final class Fixed {
+    /**
+     * number of decimal places in a unit
+     */
+    public static final int SCALE = 12;
+    /**
+     * 1 px in units
+     */
+    public static final long ONE = 1_000_000_000_000L;
+
+    private Fixed() {}
+
+    /**
+     * @param value a whole number of px
+     * @return value in units
+     */
+    public static long of(final long value) {
+        return Math.multiplyExact(value, ONE);
+    }
+
+    /**
+     * @param value a length in px
+     * @return value in units
+     * @throws IllegalArgumentException if value has more than {@link Fixed#SCALE} decimal places or is too large
+     */
+    public static long of(final BigDecimal value) {
+        try {
+            return value.movePointRight(SCALE).longValueExact();
+        } catch (final ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("%s px can't be represented exactly in units of 1e-%d px",
+                value.toPlainString(), SCALE), e);
+        }
+    }
+
+    /**
+     * @param value a length in units
+     * @return value in px
+     */
+    public static BigDecimal toBigDecimal(final long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    /**
+     * @return value / 2, which is exact if value is even and otherwise rounds toward zero
+     */
+    public static long half(final long value) {
+        return value / 2;
+    }
+
+    /**
+     * multiplies by a decimal factor, e.g. to scale a shape, rounding to the nearest unit
+     * @param value  a length in units
+     * @param factor any factor
+     * @return value * factor in units
+     */
+    public static long multiply(final long value, final BigDecimal factor) {
+        return toBigDecimal(value).multiply(factor).setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue()
+            .longValueExact();
+    }
+
+    /**
+     * @return value in px as a plain decimal string, e.g. "10.620000118"
+     */
+    public static String toString(final long value) {
+        return toBigDecimal(value).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.adashrod.lasercutthings.common;
+
+/**
+ * A point whose coordinates are {@link Fixed} lengths. Like an {@link OrderedPair}, it's mutable.
+ * @author adashrod@gmail.com
+ */
+public class FixedPoint {
+    public long x, y;
+
+    public FixedPoint(final long x, final long y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FixedPoint[x=%s, y=%s]", Fixed.toString(x), Fixed.toString(y));
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + Long.hashCode(x);
+        result = prime * result + Long.hashCode(y);
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object anObject) {
+        if (!(anObject instanceof FixedPoint)) {
+            return false;
+        }
+        final FixedPoint aFixedPoint = (FixedPoint) anObject;
+        return x == aFixedPoint.x && y == aFixedPoint.y;
+    }
+}
@@ -0,0 +1,331 @@
+package com.adashrod.lasercutthings.mazes;
+
+import com.adashrod.lasercutthings.mazes.algorithms.MazeGenerator;
+import com.adashrod.lasercutthings.mazes.algorithms.PrimsAlgorithm;
+import com.adashrod.lasercutthings.mazes.analysis.MazeAnalyzer;
+import com.adashrod.lasercutthings.mazes.factories.LinearWallModelGenerator;
+import com.adashrod.lasercutthings.mazes.factories.RectangularWallModelGenerator;
+import com.adashrod.lasercutthings.mazes.factories.SheetWallModelGenerator;
+import com.adashrod.lasercutthings.mazes.models.LinearWallModel;
+import com.adashrod.lasercutthings.mazes.models.Maze;
+import com.adashrod.lasercutthings.mazes.models.RectangularWallModel;
+import com.adashrod.lasercutthings.mazes.models.SheetWallModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs the whole pipeline, from generating a {@link Maze} to printing its cut SVG, for a range of seeds at once on a
+ * bounded pool of threads. Each seed gets its own generators and models, so seeds never share any state. The time
+ * spent in each stage is recorded for every maze and summarized in a {@link Report}.
+ * @author adashrod@gmail.com
+ */
+public class MazeBatchRunner {
+    /**
+     * the stages of the pipeline, in the order they run for each maze
+     */
+    public enum Stage {
+        GENERATE,
+        LINEAR_WALLS,
+        RECTANGULAR_WALLS,
+        SHEET_WALLS,
+        SVG
+    }
+
+    private final long firstSeed;
+    private final int numMazes;
+    private final int numCols;
+    private final int numRows;
+    private final Supplier<? extends MazeGenerator> generatorFactory;
+    private final SheetWallModelGenerator.Config sheetConfig;
+    private final String outputDirectory;
+    private final int numThreads;
+    private final boolean useWallTemplates;
+
+    MazeBatchRunner(final long firstSeed, final int numMazes, final int numCols, final int numRows,
+            final Supplier<? extends MazeGenerator> generatorFactory, final SheetWallModelGenerator.Config sheetConfig,
+            final String outputDirectory, final int numThreads, final boolean useWallTemplates) {
+        this.firstSeed = firstSeed;
+        this.numMazes = numMazes;
+        this.numCols = numCols;
+        this.numRows = numRows;
+        this.generatorFactory = generatorFactory;
+        this.sheetConfig = sheetConfig;
+        this.outputDirectory = outputDirectory;
+        this.numThreads = numThreads;
+        this.useWallTemplates = useWallTemplates;
+    }
+
+    /**
+     * Builds and prints every maze in the batch. Files are named maze-[seed].svg, or, for a maze whose parts are on
+     * more than one sheet (see {@link SheetWallModelGenerator.ConfigBuilder#withMultipleSheets(boolean)}),
+     * maze-[seed]-sheet-[index].svg with a manifest, maze-[seed]-manifest.txt. A maze that fails doesn't stop the
+     * others; failures are counted in the report.
+     * @return timing for the batch
+     * @throws InterruptedException if interrupted while waiting for the batch to finish
+     */
+    public Report run() throws InterruptedException {
+        final long[][] stageNanos = new long[Stage.values().length][numMazes];
+        // a maze that fails skips the rest of its stages, which keep this value and are left out of the report
+        for (final long[] nanos: stageNanos) {
+            Arrays.fill(nanos, Report.NOT_RUN);
+        }
+        final AtomicInteger numFailures = new AtomicInteger();
+        final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        // the queue is bounded so that a large batch doesn't queue up every task at once; when it's full, the
+        // submitting thread runs the task itself, which also throttles submission
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(numThreads, numThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(numThreads * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        final long start = System.nanoTime();
+        for (int i = 0; i < numMazes; i++) {
+            final int index = i;
+            executor.execute(() -> {
+                try {
+                    runOne(index, stageNanos);
+                } catch (final RuntimeException e) {
+                    numFailures.incrementAndGet();
+                    firstFailure.compareAndSet(null, e);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        return new Report(numMazes, System.nanoTime() - start, stageNanos, numFailures.get(), firstFailure.get());
+    }
+
+    private void runOne(final int index, final long[][] stageNanos) {
+        final long seed = firstSeed + index;
+        long stageStart = System.nanoTime();
+
+        final Maze maze = new Maze(numCols, numRows);
+        maze.build(generatorFactory.get().setSeed(seed));
+        new MazeAnalyzer(maze).openEntranceAndExit();
+        stageStart = recordStage(stageNanos, Stage.GENERATE, index, stageStart);
+
+        final LinearWallModel linearWallModel = new LinearWallModelGenerator(maze).generate();
+        stageStart = recordStage(stageNanos, Stage.LINEAR_WALLS, index, stageStart);
+
+        final RectangularWallModel rectangularWallModel = new RectangularWallModelGenerator(linearWallModel).generate();
+        stageStart = recordStage(stageNanos, Stage.RECTANGULAR_WALLS, index, stageStart);
+
+        final SheetWallModel sheetWallModel = new SheetWallModelGenerator(rectangularWallModel, sheetConfig).generate();
+        stageStart = recordStage(stageNanos, Stage.SHEET_WALLS, index, stageStart);
+
+        try {
+            final MazePrinter mazePrinter = new MazePrinter(sheetWallModel, null, null);
+            mazePrinter.useWallTemplates = useWallTemplates;
+            if (sheetWallModel.numSheets > 1) {
+                mazePrinter.printSheets(outputDirectory, String.format("maze-%d", seed), ForkJoinPool.commonPool());
+            } else {
+                mazePrinter.printSvg(new File(outputDirectory, String.format("maze-%d.svg", seed)).getPath());
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        recordStage(stageNanos, Stage.SVG, index, stageStart);
+    }
+
+    /**
+     * @return the time that the next stage starts
+     */
+    private long recordStage(final long[][] stageNanos, final Stage stage, final int index, final long stageStart) {
+        final long now = System.nanoTime();
+        stageNanos[stage.ordinal()][index] = now - stageStart;
+        return now;
+    }
+
+    public static Builder configure() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private long firstSeed;
+        private int numMazes;
+        private int numCols;
+        private int numRows;
+        private Supplier<? extends MazeGenerator> generatorFactory = PrimsAlgorithm::new;
+        private SheetWallModelGenerator.Config sheetConfig;
+        private String outputDirectory = ".";
+        private int numThreads = Runtime.getRuntime().availableProcessors();
+        private boolean useWallTemplates;
+
+        /**
+         * @param firstSeed seed of the first maze
+         * @param lastSeed  seed of the last maze, inclusive
+         * @return this
+         */
+        public Builder withSeedRange(final long firstSeed, final long lastSeed) {
+            this.firstSeed = firstSeed;
+            this.numMazes = (int) Math.min(Integer.MAX_VALUE, lastSeed - firstSeed + 1);
+            return this;
+        }
+
+        public Builder withSize(final int numCols, final int numRows) {
+            this.numCols = numCols;
+            this.numRows = numRows;
+            return this;
+        }
+
+        /**
+         * @param generatorFactory creates a new generator for each maze; defaults to PrimsAlgorithm::new
+         * @return this
+         */
+        public Builder withGeneratorFactory(final Supplier<? extends MazeGenerator> generatorFactory) {
+            this.generatorFactory = generatorFactory;
+            return this;
+        }
+
+        public Builder withSheetConfig(final SheetWallModelGenerator.Config sheetConfig) {
+            this.sheetConfig = sheetConfig;
+            return this;
+        }
+
+        /**
+         * @param outputDirectory where to write the SVGs; it is created if needed. Defaults to the working directory
+         * @return this
+         */
+        public Builder withOutputDirectory(final String outputDirectory) {
+            this.outputDirectory = outputDirectory;
+            return this;
+        }
+
+        /**
+         * @param numThreads how many mazes to work on at once; defaults to the number of processors
+         * @return this
+         */
+        public Builder withThreads(final int numThreads) {
+            this.numThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * @param useWallTemplates see {@link MazePrinter#useWallTemplates}; defaults to false
+         * @return this
+         */
+        public Builder withWallTemplates(final boolean useWallTemplates) {
+            this.useWallTemplates = useWallTemplates;
+            return this;
+        }
+
+        public MazeBatchRunner build() {
+            final StringBuilder errors = validate();
+            if (errors.length() > 0) {
+                errors.delete(errors.length() - 2, errors.length());
+                throw new IllegalArgumentException(errors.toString());
+            }
+            return new MazeBatchRunner(firstSeed, numMazes, numCols, numRows, generatorFactory, sheetConfig,
+                outputDirectory, numThreads, useWallTemplates);
+        }
+
+        /**
+         * @return a "; "-terminated message for each problem with the configuration, or nothing if it's valid
+         */
+        private StringBuilder validate() {
+            final StringBuilder errors = new StringBuilder();
+            if (numMazes <= 0) {
+                errors.append("seed range must not be empty; ");
+            }
+            if (numCols <= 0 || numRows <= 0) {
+                errors.append("size must be positive; ");
+            }
+            if (generatorFactory == null) {
+                errors.append("generatorFactory must not be null; ");
+            }
+            if (sheetConfig == null) {
+                errors.append("sheetConfig must not be null; ");
+            }
+            if (numThreads <= 0) {
+                errors.append("numThreads must be positive; ");
+            }
+            if (outputDirectory == null ||
+                    !new File(outputDirectory).isDirectory() && !new File(outputDirectory).mkdirs()) {
+                errors.append("outputDirectory must be a directory; ");
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * Throughput and per-stage latency of a batch
+     */
+    public static class Report {
+        /**
+         * time of a stage that a maze never got to because an earlier stage failed
+         */
+        static final long NOT_RUN = -1;
+        private static final double NANOS_PER_SECOND = 1e9;
+        private static final double NANOS_PER_MILLI = 1e6;
+        private static final int P50 = 50;
+        private static final int P90 = 90;
+        private static final int P99 = 99;
+        private static final int HUNDRED = 100;
+
+        public final int numMazes;
+        public final long totalNanos;
+        public final int numFailures;
+        public final Throwable firstFailure;
+        private final long[][] sortedStageNanos;
+
+        Report(final int numMazes, final long totalNanos, final long[][] stageNanos, final int numFailures,
+                final Throwable firstFailure) {
+            this.numMazes = numMazes;
+            this.totalNanos = totalNanos;
+            this.numFailures = numFailures;
+            this.firstFailure = firstFailure;
+            sortedStageNanos = new long[stageNanos.length][];
+            for (int i = 0; i < stageNanos.length; i++) {
+                sortedStageNanos[i] = Arrays.stream(stageNanos[i]).filter((final long nanos) -> nanos != NOT_RUN)
+                    .sorted().toArray();
+            }
+        }
+
+        /**
+         * @return mazes finished per second of wall-clock time
+         */
+        public double getThroughput() {
+            return (numMazes - numFailures) * NANOS_PER_SECOND / totalNanos;
+        }
+
+        /**
+         * @param stage      stage of the pipeline
+         * @param percentile in (0, 100]
+         * @return the nearest-rank percentile of the time spent in that stage by the mazes that finished it, in
+         * nanoseconds, or -1 if none did
+         */
+        public long getPercentileNanos(final Stage stage, final double percentile) {
+            final long[] sorted = sortedStageNanos[stage.ordinal()];
+            if (sorted.length == 0) {
+                return NOT_RUN;
+            }
+            final int rank = (int) Math.ceil(percentile / HUNDRED * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(String.format(
+                "%d mazes (%d failed) in %.1f ms: %.2f mazes/sec%n", numMazes, numFailures,
+                totalNanos / NANOS_PER_MILLI, getThroughput()));
+            builder.append(String.format("%-18s %10s %10s %10s %10s%n", "stage (ms)", "p50", "p90", "p99", "max"));
+            for (final Stage stage: Stage.values()) {
+                builder.append(String.format("%-18s %10s %10s %10s %10s%n", stage, formatMillis(stage, P50),
+                    formatMillis(stage, P90), formatMillis(stage, P99), formatMillis(stage, HUNDRED)));
+            }
+            return builder.toString();
+        }
+
+        private String formatMillis(final Stage stage, final double percentile) {
+            final long nanos = getPercentileNanos(stage, percentile);
+            return nanos == NOT_RUN ? "-" : String.format("%.3f", nanos / NANOS_PER_MILLI);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.adashrod.lasercutthings.mazes;
 
+import com.adashrod.lasercutthings.common.FixedPoint;
 import com.adashrod.lasercutthings.common.OrderedPair;
 import com.adashrod.lasercutthings.mazes.models.CalibrationRectangle;
 import com.adashrod.lasercutthings.mazes.models.LinearWallModel;
@@ -11,15 +12,30 @@ import com.adashrod.lasercutthings.svg.Path;
 import com.adashrod.lasercutthings.svg.SvgElementGenerator;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
 
+import static com.adashrod.lasercutthings.mazes.Direction.EAST;
+import static com.adashrod.lasercutthings.mazes.Direction.NORTH;
+import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
+import static com.adashrod.lasercutthings.mazes.Direction.WEST;
 import static java.math.BigDecimal.ZERO;
 
 /**
@@ -27,6 +43,13 @@ import static java.math.BigDecimal.ZERO;
  * @author adashrod@gmail.com
  */
 public class MazePrinter {
+    private static final String XLINK_NAMESPACE = "http://www.w3.org/1999/xlink";
+    /**
+     * value for the sheet parameter of {@link MazePrinter#printSvg(String, CalibrationRectangle, int)} to print every
+     * sheet
+     */
+    private static final int ALL_SHEETS = -1;
+
     private final Maze maze;
     private final LinearWallModel linearWallModel;
     private final SheetWallModel sheetWallModel;
@@ -34,6 +57,13 @@ public class MazePrinter {
     private final BigDecimal maxHeight;
 
     public int precision = 5;
+    /**
+     * if true, {@link MazePrinter#printSvg(String, CalibrationRectangle)} writes each type of wall and wall label once,
+     * in a &lt;defs/&gt;, and places the walls with &lt;use/&gt; elements. The walls of a type have to be translations of
+     * each other, which they are when they come from
+     * {@link com.adashrod.lasercutthings.mazes.factories.SheetWallModelGenerator}.
+     */
+    public boolean useWallTemplates;
 
     /**
      * @param maze the maze to print with this MazePrinter instance
@@ -114,30 +144,30 @@ public class MazePrinter {
         o.print("_");
         for (int x = 0; x < maze.getNumCols(); x++) {
             final Space space = maze.getGrid()[0][x];
-            o.print(space.northOpen ? " " : "_");
+            o.print(space.isOpen(NORTH) ? " " : "_");
             final Space next = x + 1 < maze.getNumCols() ? maze.getGrid()[0][x + 1] : null;
-            final boolean nextNorthOpen = next == null || next.northOpen;
-            o.print(space.northOpen && nextNorthOpen ? " " : "_");
+            final boolean nextNorthOpen = next == null || next.isOpen(NORTH);
+            o.print(space.isOpen(NORTH) && nextNorthOpen ? " " : "_");
         }
         o.println();
     }
 
     private void printAsciiArtHelperRow(final PrintStream o, final int y) {
         // pre-phase: print left wall or opening at start of row
-        o.print(maze.getGrid()[y][0].westOpen ? " " : "|");
+        o.print(maze.getGrid()[y][0].isOpen(WEST) ? " " : "|");
 
         for (int x = 0; x < maze.getNumCols(); x++) {
             final Space s = maze.getGrid()[y][x];
             final boolean rightWall = x + 1 == maze.getNumCols();
 
             // phase 1: the space itself
-            o.print(s.southOpen ? " " : "_");
+            o.print(s.isOpen(SOUTH) ? " " : "_");
             // phase 2: the wall to the right of the space (interstitial)
             final Space next = rightWall ? null : maze.getGrid()[y][x + 1];
-            final boolean nextSouthOpen = next == null || next.southOpen;
-            if (!s.eastOpen) {
+            final boolean nextSouthOpen = next == null || next.isOpen(SOUTH);
+            if (!s.isOpen(EAST)) {
                 o.print("|");
-            } else if (s.southOpen && nextSouthOpen) {
+            } else if (s.isOpen(SOUTH) && nextSouthOpen) {
                 o.print(" ");
             } else {
                 o.print("_");
@@ -161,8 +191,19 @@ public class MazePrinter {
         if (linearWallModel == null) {
             throw new IllegalStateException("linearWallModel can't be null");
         }
+        printTestSvg(name, linearWallModel.walls.stream());
+    }
+
+    /**
+     * @see MazePrinter#printTestSvg(String), but writes each wall as it comes out of the stream, e.g. from
+     * {@link com.adashrod.lasercutthings.mazes.factories.LinearWallModelGenerator#stream()}, so that the whole model
+     * never has to be in memory
+     * @param name  filename to create
+     * @param walls walls to print
+     */
+    public static void printTestSvg(final String name, final Stream<LinearWallModel.Wall> walls) {
         try (final FileWriter fileWriter = new FileWriter(name)) {
-            final InputStream headerStream = getClass().getResourceAsStream("/header.svg");
+            final InputStream headerStream = MazePrinter.class.getResourceAsStream("/header.svg");
             final BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(headerStream));
             String line;
             while ((line = bufferedReader.readLine()) != null) {
@@ -173,17 +214,9 @@ public class MazePrinter {
                 .append("inkscape:groupmode=\"layer\" ")
                 .append("id=\"layer1\">");
 
-            final int rectWidth = 4, rectScale = 20;
-            for (final LinearWallModel.Wall wall: linearWallModel.walls) {
-                final boolean vertical = Objects.equals(wall.start.x, wall.end.x);
-                final double addX = vertical ? rectWidth : 0;
-                final double addY = vertical ? 0 : rectWidth;
-                fileWriter.append("<rect style=\"stroke:#000000;fill:none\" ")
-                    .append("x=\"").append(Double.toString(wall.start.x * rectScale - addX)).append("\" ")
-                    .append("y=\"").append(Double.toString(wall.start.y * rectScale - addY)).append("\" ")
-                    .append("width=\"").append(vertical ? "4" : Double.toString(Math.abs(wall.end.x - wall.start.x) * rectScale - rectWidth)).append("\" ")
-                    .append("height=\"").append(vertical ? Double.toString(Math.abs(wall.end.y - wall.start.y) * rectScale - rectWidth) : Integer.toString(rectWidth)).append("\" ")
-                    .append("/>");
+            final Iterator<LinearWallModel.Wall> wallIterator = walls.iterator();
+            while (wallIterator.hasNext()) {
+                appendTestSvgWall(fileWriter, wallIterator.next());
             }
 
             fileWriter.append("</g>\n")
@@ -194,18 +227,126 @@ public class MazePrinter {
         }
     }
 
+    private static void appendTestSvgWall(final FileWriter fileWriter, final LinearWallModel.Wall wall)
+            throws IOException {
+        final int rectWidth = 4, rectScale = 20;
+        final boolean vertical = Objects.equals(wall.start.x, wall.end.x);
+        final double addX = vertical ? rectWidth : 0;
+        final double addY = vertical ? 0 : rectWidth;
+        fileWriter.append("<rect style=\"stroke:#000000;fill:none\" ")
+            .append("x=\"").append(Double.toString(wall.start.x * rectScale - addX)).append("\" ")
+            .append("y=\"").append(Double.toString(wall.start.y * rectScale - addY)).append("\" ")
+            .append("width=\"").append(vertical ? "4" : Double.toString(Math.abs(wall.end.x - wall.start.x) * rectScale - rectWidth)).append("\" ")
+            .append("height=\"").append(vertical ? Double.toString(Math.abs(wall.end.y - wall.start.y) * rectScale - rectWidth) : Integer.toString(rectWidth)).append("\" ")
+            .append("/>");
+    }
+
     public void printSvg(final String name) throws IOException {
         printSvg(name, null);
     }
 
     /**
-     * Prints an SVG with shapes representing cut-out sections that will be the walls and floor of a maze
+     * Prints an SVG with shapes representing cut-out sections that will be the walls and floor of a maze. If the parts
+     * are on more than one sheet, the sheets are drawn on top of each other; see
+     * {@link MazePrinter#printSheets(String, String, ForkJoinPool)}.
      * @param name filename to create
      */
     public void printSvg(final String name, final CalibrationRectangle calibrationRectangle) throws IOException {
         if (sheetWallModel == null) {
             throw new IllegalStateException("sheetWallModel can't be null");
         }
+        printSvg(name, calibrationRectangle, ALL_SHEETS);
+    }
+
+    /**
+     * Prints one SVG per sheet of the {@link SheetWallModel}, named [baseName]-sheet-[index].svg, and a manifest,
+     * [baseName]-manifest.txt, that lists what's on each sheet. The sheets are written at the same time in pool, and
+     * the manifest is written after all of them, so it's only there if every sheet is.
+     * @param directory where to write the files
+     * @param baseName  prefix of the file names
+     * @param pool      the pool to write the sheets in
+     * @return the names of the sheet files, in order
+     */
+    public List<String> printSheets(final String directory, final String baseName, final ForkJoinPool pool)
+            throws IOException {
+        if (sheetWallModel == null) {
+            throw new IllegalStateException("sheetWallModel can't be null");
+        }
+        final List<String> fileNames = new ArrayList<>();
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        RuntimeException failure = null;
+        try {
+            for (int sheet = 0; sheet < sheetWallModel.numSheets; sheet++) {
+                final int sheetIndex = sheet;
+                final String fileName = String.format("%s-sheet-%d.svg", baseName, sheet);
+                fileNames.add(fileName);
+                tasks.add(pool.submit(() -> {
+                    try {
+                        printSvg(new File(directory, fileName).getPath(), null, sheetIndex);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+        } finally {
+            // every sheet is finished before this returns or throws, even if one of them or submitting one fails
+            for (final ForkJoinTask<?> task: tasks) {
+                try {
+                    task.join();
+                } catch (final RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+        if (failure instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) failure).getCause();
+        } else if (failure != null) {
+            throw failure;
+        }
+        // the manifest is only written once every sheet that it lists has been
+        printManifest(new File(directory, baseName + "-manifest.txt").getPath(), fileNames);
+        return fileNames;
+    }
+
+    /**
+     * The manifest has a line of tab-separated columns for each sheet: the file, whether the floor is on it, the number
+     * of walls on it, and the types of those walls as label: count pairs. A header at the top says how many sheets
+     * there are and whether any part is out of bounds.
+     */
+    private void printManifest(final String name, final List<String> sheetFileNames) throws IOException {
+        final List<Map<Integer, Integer>> wallTypeCounts = new ArrayList<>();
+        final int[] numWalls = new int[sheetWallModel.numSheets];
+        for (int sheet = 0; sheet < sheetWallModel.numSheets; sheet++) {
+            wallTypeCounts.add(new TreeMap<>());
+        }
+        for (final Shape wall: sheetWallModel.walls) {
+            final int sheet = sheetWallModel.wallSheets.getOrDefault(wall, 0);
+            numWalls[sheet]++;
+            wallTypeCounts.get(sheet).merge(sheetWallModel.wallLabels.get(wall).number, 1, Integer::sum);
+        }
+        try (final FileWriter fileWriter = new FileWriter(name)) {
+            fileWriter.append(String.format("sheets: %d%nout of bounds: %b%n", sheetWallModel.numSheets,
+                sheetWallModel.outOfBounds));
+            fileWriter.append(String.format("file\tfloor\twalls\twall types%n"));
+            for (int sheet = 0; sheet < sheetWallModel.numSheets; sheet++) {
+                final StringBuilder types = new StringBuilder();
+                for (final Map.Entry<Integer, Integer> typeCount: wallTypeCounts.get(sheet).entrySet()) {
+                    types.append(types.length() > 0 ? ", " : "").append(typeCount.getKey()).append(": ")
+                        .append(typeCount.getValue());
+                }
+                fileWriter.append(String.format("%s\t%s\t%d\t%s%n", sheetFileNames.get(sheet),
+                    sheet == 0 ? "yes" : "no", numWalls[sheet], types));
+            }
+        }
+    }
+
+    /**
+     * @param sheet index of the sheet to print, or {@link MazePrinter#ALL_SHEETS}
+     */
+    private void printSvg(final String name, final CalibrationRectangle calibrationRectangle, final int sheet)
+            throws IOException {
         try (final FileWriter fileWriter = new FileWriter(name)) {
             final InputStream headerStream = getClass().getResourceAsStream("/header.svg");
             final BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(headerStream));
@@ -215,45 +356,141 @@ public class MazePrinter {
             }
             final SvgElementGenerator svgElementGenerator = new SvgElementGenerator();
 
-            fileWriter.append("<g id=\"floor\">");
-            for (final com.adashrod.lasercutthings.mazes.models.Path notch : sheetWallModel.floorNotches.paths) {
-                final Path svgPath = svgElementGenerator.modelPathToSvgPath(notch);
-                fileWriter.append(svgElementGenerator.pathToSvgText(svgPath, precision));
+            final boolean hasFloor = sheet == ALL_SHEETS || sheet == 0;
+            if (hasFloor) {
+                appendFloor(fileWriter, svgElementGenerator);
             }
-
-            for (final com.adashrod.lasercutthings.mazes.models.Path outlinePath : sheetWallModel.floorOutline.paths) {
-                final Path svgPath = svgElementGenerator.modelPathToSvgPath(outlinePath);
-                svgPath.style = svgPath.style.replace("#000000", "#ff0000");
-                fileWriter.append(svgElementGenerator.pathToSvgText(svgPath, precision));
+            if (useWallTemplates) {
+                appendWallTemplates(fileWriter, svgElementGenerator, sheet);
+            } else {
+                appendWalls(fileWriter, svgElementGenerator, sheet);
+            }
+            if (hasFloor) {
+                appendFloorNumbers(fileWriter, svgElementGenerator);
+            }
+            if (!useWallTemplates) {
+                appendWallNumbers(fileWriter, svgElementGenerator, sheet);
             }
-            fileWriter.append("</g>\n");
 
-            fileWriter.append("<g id=\"walls\">");
-            for (final Shape shape: sheetWallModel.walls) {
-                for (final com.adashrod.lasercutthings.mazes.models.Path wall: shape.paths) {
-                    final Path svgPath = svgElementGenerator.modelPathToSvgPath(wall);
-                    fileWriter.append(svgElementGenerator.pathToSvgText(svgPath, precision));
-                }
+            addCalibrationRectangle(fileWriter, svgElementGenerator, calibrationRectangle);
+
+            fileWriter.append("</svg>\n");
+            fileWriter.flush();
+        }
+    }
+
+    private void appendFloor(final FileWriter fileWriter, final SvgElementGenerator svgElementGenerator)
+            throws IOException {
+        fileWriter.append("<g id=\"floor\">");
+        for (final com.adashrod.lasercutthings.mazes.models.Path notch : sheetWallModel.floorNotches.paths) {
+            fileWriter.append(svgElementGenerator.modelPathToSvgText(notch, Path.DEFAULT_STYLE, precision));
+        }
+
+        final String outlineStyle = Path.DEFAULT_STYLE.replace("#000000", "#ff0000");
+        for (final com.adashrod.lasercutthings.mazes.models.Path outlinePath : sheetWallModel.floorOutline.paths) {
+            fileWriter.append(svgElementGenerator.modelPathToSvgText(outlinePath, outlineStyle, precision));
+        }
+        fileWriter.append("</g>\n");
+    }
+
+    private void appendWalls(final FileWriter fileWriter, final SvgElementGenerator svgElementGenerator,
+            final int sheet) throws IOException {
+        fileWriter.append("<g id=\"walls\">");
+        for (final Shape shape: sheetWallModel.walls) {
+            if (!isOnSheet(shape, sheet)) {
+                continue;
             }
-            fileWriter.append("</g>\n");
+            for (final com.adashrod.lasercutthings.mazes.models.Path wall: shape.paths) {
+                fileWriter.append(svgElementGenerator.modelPathToSvgText(wall, Path.DEFAULT_STYLE, precision));
+            }
+        }
+        fileWriter.append("</g>\n");
+    }
+
+    private void appendFloorNumbers(final FileWriter fileWriter, final SvgElementGenerator svgElementGenerator)
+            throws IOException {
+        fileWriter.append("<g id=\"floor-numbers\">");
+        for (final VectorNumber floorNumber: sheetWallModel.floorNumbers) {
+            fileWriter.append(svgElementGenerator.vectorNumberToSvgText(floorNumber, precision));
+        }
+        fileWriter.append("</g>\n");
+    }
 
-            fileWriter.append("<g id=\"floor-numbers\">");
-            for (final VectorNumber floorNumber: sheetWallModel.floorNumbers) {
-                fileWriter.append(svgElementGenerator.vectorNumberToSvgText(floorNumber, precision));
+    private void appendWallNumbers(final FileWriter fileWriter, final SvgElementGenerator svgElementGenerator,
+            final int sheet) throws IOException {
+        fileWriter.append("<g id=\"wall-numbers\">");
+        for (final Map.Entry<Shape, VectorNumber> wallNumber: sheetWallModel.wallLabels.entrySet()) {
+            if (isOnSheet(wallNumber.getKey(), sheet)) {
+                fileWriter.append(svgElementGenerator.vectorNumberToSvgText(wallNumber.getValue(), precision));
             }
-            fileWriter.append("</g>\n");
+        }
+        fileWriter.append("</g>\n");
+    }
 
-            fileWriter.append("<g id=\"wall-numbers\">");
-            for (final VectorNumber wallNumber: sheetWallModel.wallLabels.values()) {
-                fileWriter.append(svgElementGenerator.vectorNumberToSvgText(wallNumber, precision));
+    /**
+     * Writes the walls and wall labels, each type once in a &lt;defs/&gt; at (0, 0) and then one &lt;use/&gt; per wall.
+     * The type of a wall is the number on its label, and whether it was rotated.
+     */
+    private void appendWallTemplates(final FileWriter fileWriter, final SvgElementGenerator svgElementGenerator,
+            final int sheet) throws IOException {
+        final Map<String, Shape> wallTypes = new LinkedHashMap<>();
+        final Map<Integer, VectorNumber> labelTypes = new LinkedHashMap<>();
+        for (final Shape wall: sheetWallModel.walls) {
+            if (!isOnSheet(wall, sheet)) {
+                continue;
             }
-            fileWriter.append("</g>\n");
+            wallTypes.putIfAbsent(findWallTypeId(wall), wall);
+            final VectorNumber label = sheetWallModel.wallLabels.get(wall);
+            labelTypes.putIfAbsent(label.number, label);
+        }
+        fileWriter.append("<defs>");
+        for (final Map.Entry<String, Shape> wallType: wallTypes.entrySet()) {
+            final Shape wall = wallType.getValue();
+            fileWriter.append("<g id=\"").append(wallType.getKey()).append("\">");
+            for (final com.adashrod.lasercutthings.mazes.models.Path path: wall.paths) {
+                final com.adashrod.lasercutthings.mazes.models.Path template = path.copy()
+                    .translate(-wall.findMinX(), -wall.findMinY());
+                fileWriter.append(svgElementGenerator.modelPathToSvgText(template, Path.DEFAULT_STYLE, precision));
+            }
+            fileWriter.append("</g>");
+        }
+        for (final VectorNumber label: labelTypes.values()) {
+            fileWriter.append("<g id=\"wall-label-").append(String.valueOf(label.number)).append("\">")
+                .append(svgElementGenerator.vectorNumberToSvgText(new VectorNumber(label.number, label.width,
+                    label.height, new FixedPoint(0, 0)), precision))
+                .append("</g>");
+        }
+        fileWriter.append("</defs>\n");
 
-            addCalibrationRectangle(fileWriter, svgElementGenerator, calibrationRectangle);
+        fileWriter.append("<g id=\"walls\" xmlns:xlink=\"").append(XLINK_NAMESPACE).append("\">");
+        for (final Shape wall: sheetWallModel.walls) {
+            if (!isOnSheet(wall, sheet)) {
+                continue;
+            }
+            fileWriter.append(svgElementGenerator.useToSvgText(findWallTypeId(wall), wall.findMinX(), wall.findMinY(),
+                precision));
+        }
+        fileWriter.append("</g>\n");
 
-            fileWriter.append("</svg>\n");
-            fileWriter.flush();
+        fileWriter.append("<g id=\"wall-numbers\" xmlns:xlink=\"").append(XLINK_NAMESPACE).append("\">");
+        for (final Shape wall: sheetWallModel.walls) {
+            if (!isOnSheet(wall, sheet)) {
+                continue;
+            }
+            final VectorNumber label = sheetWallModel.wallLabels.get(wall);
+            fileWriter.append(svgElementGenerator.useToSvgText("wall-label-" + label.number, label.position.x,
+                label.position.y, precision));
         }
+        fileWriter.append("</g>\n");
+    }
+
+    private String findWallTypeId(final Shape wall) {
+        return "wall-type-" + sheetWallModel.wallLabels.get(wall).number +
+            (sheetWallModel.rotatedWalls.contains(wall) ? "-rotated" : "");
+    }
+
+    private boolean isOnSheet(final Shape wall, final int sheet) {
+        return sheet == ALL_SHEETS || sheetWallModel.wallSheets.getOrDefault(wall, 0) == sheet;
     }
 
     private void addCalibrationRectangle(final FileWriter fileWriter, final SvgElementGenerator svgElementGenerator,
@@ -1,29 +1,30 @@
 package com.adashrod.lasercutthings.mazes;
 
+import com.adashrod.lasercutthings.mazes.models.Maze;
+
 /**
  * A Space represents an element in a 2D array representation of a maze. It knows whether it has walls on any four sides.
+ * Spaces don't store walls themselves; they read and write through to the packed walls of the {@link Maze} they came
+ * from.
  * @author adashrod@gmail.com
  */
 public class Space {
-    boolean northOpen;
-    boolean eastOpen;
-    boolean southOpen;
-    boolean westOpen;
+    private final Maze maze;
+    private final int x;
+    private final int y;
+
+    public Space(final Maze maze, final int x, final int y) {
+        this.maze = maze;
+        this.x = x;
+        this.y = y;
+    }
 
     /**
      * Removes a wall in the space
      * @param direction which wall to remove
      */
     public void openWall(final Direction direction) {
-        if (direction == Direction.NORTH) {
-            northOpen = true;
-        } else if (direction == Direction.EAST) {
-            eastOpen = true;
-        } else if (direction == Direction.SOUTH) {
-            southOpen = true;
-        } else if (direction == Direction.WEST) {
-            westOpen = true;
-        }
+        maze.openWall(x, y, direction);
     }
 
     /**
@@ -31,33 +32,22 @@ public class Space {
      * @return true if the wall in the specified direction is open (no wall)
      */
     public boolean isOpen(final Direction direction) {
-        switch (direction) {
-            case NORTH:
-                return northOpen;
-            case EAST:
-                return eastOpen;
-            case SOUTH:
-                return southOpen;
-            case WEST:
-                return westOpen;
-            default:
-                throw new IllegalArgumentException("invalid direction: " + String.valueOf(direction));
-        }
+        return maze.isOpen(x, y, direction);
     }
 
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder("Space[");
-        if (northOpen) {
+        if (isOpen(Direction.NORTH)) {
             builder.append("^");
         }
-        if (eastOpen) {
+        if (isOpen(Direction.EAST)) {
             builder.append(">");
         }
-        if (southOpen) {
+        if (isOpen(Direction.SOUTH)) {
             builder.append("v");
         }
-        if (westOpen) {
+        if (isOpen(Direction.WEST)) {
             builder.append("<");
         }
         return builder.append("]").toString();
@@ -1,62 +1,75 @@
 package com.adashrod.lasercutthings.mazes.algorithms;
 
-import com.adashrod.lasercutthings.common.OrderedPair;
 import com.adashrod.lasercutthings.mazes.Direction;
 import com.adashrod.lasercutthings.mazes.models.Maze;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.BitSet;
 
-import static com.adashrod.lasercutthings.mazes.Direction.determineDirection;
+import static com.adashrod.lasercutthings.mazes.Direction.EAST;
+import static com.adashrod.lasercutthings.mazes.Direction.NORTH;
+import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
+import static com.adashrod.lasercutthings.mazes.Direction.WEST;
 
 /**
  * An implementation of https://en.wikipedia.org/wiki/Depth-first_search
+ * Spaces are identified by their index y * numCols + x. The stack is an int[] of space indexes and explored spaces are
+ * kept in a bitset, so nothing is allocated per step.
  * @author adashrod@gmail.com
  */
 public class DepthFirstSearchAlgorithm extends MazeGenerator {
+    private static final int[] DELTA_X = {0, 1, 0, -1};
+    private static final int[] DELTA_Y = {-1, 0, 1, 0};
+    private static final Direction[] DELTA_DIRECTIONS = {NORTH, EAST, SOUTH, WEST};
+
+    private final int[] unexploredNeighbors = new int[DELTA_X.length];
     private Maze maze;
-    private final Collection<OrderedPair<Integer>> explored = new HashSet<>();
-    private final List<OrderedPair<Integer>> deltas = Arrays.asList(
-        new OrderedPair<>(0, -1), new OrderedPair<>(1, 0), new OrderedPair<>(0, 1), new OrderedPair<>(-1, 0));
+    private BitSet explored;
 
     @Override
     public void buildPaths(final Maze maze) {
         this.maze = maze;
-        final Deque<OrderedPair<Integer>> stack = new LinkedList<>();
-        OrderedPair<Integer> current = new OrderedPair<>(rng.nextInt(maze.getNumCols()), rng.nextInt(maze.getNumRows()));
-        explored.add(new OrderedPair<>(current.x, current.y));
-        final int numSpaces = maze.getNumRows() * maze.getNumCols();
-        while (explored.size() < numSpaces) {
-            final List<OrderedPair<Integer>> neighbors = findUnexploredNeighbors(current.x, current.y);
-            if (!neighbors.isEmpty()) {
-                final OrderedPair<Integer> randomNeighbor = neighbors.get(rng.nextInt(neighbors.size()));
-                stack.offerFirst(current);
-                final Direction direction = determineDirection(current, randomNeighbor);
-                maze.getGrid()[current.y][current.x].openWall(direction);
-                maze.getGrid()[randomNeighbor.y][randomNeighbor.x].openWall(direction.opposite());
-                current = randomNeighbor;
-                explored.add(new OrderedPair<>(current.x, current.y));
+        final int numCols = maze.getNumCols(), numSpaces = maze.getNumRows() * maze.getNumCols();
+        explored = new BitSet(numSpaces);
+        // every space is pushed at most once, when moving away from it for the first time
+        final int[] stack = new int[numSpaces];
+        int stackSize = 0;
+        int currentX = rng.nextInt(numCols), currentY = rng.nextInt(maze.getNumRows());
+        explored.set(currentY * numCols + currentX);
+        int numExplored = 1;
+        while (numExplored < numSpaces) {
+            final int numNeighbors = findUnexploredNeighbors(currentX, currentY);
+            if (numNeighbors > 0) {
+                final int d = unexploredNeighbors[rng.nextInt(numNeighbors)];
+                stack[stackSize++] = currentY * numCols + currentX;
+                maze.openWall(currentX, currentY, DELTA_DIRECTIONS[d]);
+                currentX += DELTA_X[d];
+                currentY += DELTA_Y[d];
+                explored.set(currentY * numCols + currentX);
+                numExplored++;
             } else {
-                if (stack.isEmpty()) {
+                if (stackSize == 0) {
                     break;
                 }
-                current = stack.pollFirst();
+                final int popped = stack[--stackSize];
+                currentX = popped % numCols;
+                currentY = popped / numCols;
             }
         }
     }
 
-    private List<OrderedPair<Integer>> findUnexploredNeighbors(final int x, final int y) {
-        final List<OrderedPair<Integer>> neighbors = new ArrayList<>();
-        deltas.forEach((final OrderedPair<Integer> delta) -> {
-            if (maze.isInBounds(x + delta.x, y + delta.y) && !explored.contains(new OrderedPair<>(x + delta.x, y + delta.y))) {
-                neighbors.add(new OrderedPair<>(x + delta.x, y + delta.y));
+    /**
+     * fills {@link DepthFirstSearchAlgorithm#unexploredNeighbors} with the delta indexes of the unexplored neighbors, in
+     * N, E, S, W order
+     * @return the number of neighbors found
+     */
+    private int findUnexploredNeighbors(final int x, final int y) {
+        int numNeighbors = 0;
+        for (int d = 0; d < DELTA_X.length; d++) {
+            final int nx = x + DELTA_X[d], ny = y + DELTA_Y[d];
+            if (maze.isInBounds(nx, ny) && !explored.get(ny * maze.getNumCols() + nx)) {
+                unexploredNeighbors[numNeighbors++] = d;
             }
-        });
-        return neighbors;
+        }
+        return numNeighbors;
     }
 }
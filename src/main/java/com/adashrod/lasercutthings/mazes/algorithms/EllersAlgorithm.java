@@ -0,0 +1,222 @@
+package com.adashrod.lasercutthings.mazes.algorithms;
+
+import com.adashrod.lasercutthings.mazes.models.Maze;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.adashrod.lasercutthings.mazes.Direction.EAST;
+import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
+
+/**
+ * An implementation of Eller's algorithm (http://www.neocomputer.org/projects/eller.html) for generating random 2D mazes
+ * with square spaces. It builds the maze one row at a time and only remembers which set each space in the current row
+ * belongs to, so memory use is proportional to the width of the maze no matter how tall it is. Rows can be streamed
+ * with {@link EllersAlgorithm#rows(int, long)} without ever creating a {@link Maze}.
+ * @author adashrod@gmail.com
+ */
+public class EllersAlgorithm extends MazeGenerator {
+    private static final int WORD_SHIFT = 6;
+
+    @Override
+    public void buildPaths(final Maze maze) {
+        final Iterator<Row> rows = rows(maze.getNumCols(), maze.getNumRows());
+        while (rows.hasNext()) {
+            final Row row = rows.next();
+            final int y = (int) row.getY();
+            for (int x = 0; x < row.getWidth(); x++) {
+                if (row.isEastOpen(x)) {
+                    maze.openWall(x, y, EAST);
+                }
+                if (row.isSouthOpen(x)) {
+                    maze.openWall(x, y, SOUTH);
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the rows of a maze lazily. The returned iterator reuses a single {@link Row}, so a row is only valid
+     * until the next call to next().
+     * @param width  number of columns
+     * @param height number of rows
+     * @return an iterator over the rows of the maze, from top to bottom
+     */
+    public Iterator<Row> rows(final int width, final long height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException(String.format("width and height must be positive: %dx%d", width, height));
+        }
+        return new RowIterator(width, height);
+    }
+
+    /**
+     * One row of a maze generated by {@link EllersAlgorithm}. Only the east and south walls are recorded; the north walls
+     * are the south walls of the previous row, and the west walls are the east walls of the previous space. The outer
+     * walls are always closed.
+     */
+    public static final class Row {
+        private final int width;
+        private final long[] eastOpen;
+        private final long[] southOpen;
+        private long y;
+
+        private Row(final int width) {
+            this.width = width;
+            eastOpen = new long[(width >>> WORD_SHIFT) + 1];
+            southOpen = new long[eastOpen.length];
+        }
+
+        /**
+         * @return index of this row, starting at 0 for the top row
+         */
+        public long getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public boolean isEastOpen(final int x) {
+            return (eastOpen[x >>> WORD_SHIFT] & 1L << x) != 0;
+        }
+
+        public boolean isSouthOpen(final int x) {
+            return (southOpen[x >>> WORD_SHIFT] & 1L << x) != 0;
+        }
+
+        private void clear(final long newY) {
+            y = newY;
+            Arrays.fill(eastOpen, 0L);
+            Arrays.fill(southOpen, 0L);
+        }
+
+        private void openEast(final int x) {
+            eastOpen[x >>> WORD_SHIFT] |= 1L << x;
+        }
+
+        private void openSouth(final int x) {
+            southOpen[x >>> WORD_SHIFT] |= 1L << x;
+        }
+    }
+
+    /**
+     * Holds the set label of each space in the current row. Labels are always kept in [0, width) by renumbering them
+     * after each row, so every array here is O(width).
+     */
+    private final class RowIterator implements Iterator<Row> {
+        private final int width;
+        private final long height;
+        private final Row row;
+        private final int[] labels;
+        private final int[] parent;
+        private final int[] seen;
+        private final int[] chosen;
+        // sized 2 * width so that it can also hold the temporary labels of new sets
+        private final int[] relabel;
+        private long nextY;
+
+        private RowIterator(final int width, final long height) {
+            this.width = width;
+            this.height = height;
+            row = new Row(width);
+            labels = new int[width];
+            parent = new int[width];
+            seen = new int[width];
+            chosen = new int[width];
+            relabel = new int[2 * width];
+            for (int x = 0; x < width; x++) {
+                labels[x] = x;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextY < height;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            row.clear(nextY);
+            for (int x = 0; x < width; x++) {
+                parent[x] = x;
+            }
+            final boolean isLastRow = nextY == height - 1;
+            joinAcrossRow(isLastRow);
+            if (!isLastRow) {
+                joinDownward();
+            }
+            nextY++;
+            return row;
+        }
+
+        private int find(final int label) {
+            int root = label;
+            while (parent[root] != root) {
+                root = parent[root];
+            }
+            int current = label;
+            while (parent[current] != root) {
+                final int next = parent[current];
+                parent[current] = root;
+                current = next;
+            }
+            return root;
+        }
+
+        /**
+         * randomly joins horizontally adjacent spaces that are in different sets; on the last row every such pair is
+         * joined so that the whole maze ends up connected
+         */
+        private void joinAcrossRow(final boolean joinAll) {
+            for (int x = 0; x + 1 < width; x++) {
+                final int left = find(labels[x]), right = find(labels[x + 1]);
+                if (left != right && (joinAll || rng.nextBoolean())) {
+                    parent[right] = left;
+                    row.openEast(x);
+                }
+            }
+        }
+
+        /**
+         * Randomly opens south walls, making sure that each set gets at least one, then works out the labels for the
+         * next row: spaces below an opening stay in the same set, the rest start new sets.
+         */
+        private void joinDownward() {
+            Arrays.fill(seen, 0);
+            for (int x = 0; x < width; x++) {
+                final int set = find(labels[x]);
+                labels[x] = set;
+                seen[set]++;
+                // pick one space per set uniformly at random (reservoir sampling) to guarantee a way down
+                if (rng.nextInt(seen[set]) == 0) {
+                    chosen[set] = x;
+                }
+                if (rng.nextBoolean()) {
+                    row.openSouth(x);
+                }
+            }
+            for (int x = 0; x < width; x++) {
+                final int set = labels[x];
+                if (chosen[set] == x) {
+                    row.openSouth(x);
+                }
+                if (!row.isSouthOpen(x)) {
+                    labels[x] = width + x;
+                }
+            }
+            Arrays.fill(relabel, -1);
+            int numLabels = 0;
+            for (int x = 0; x < width; x++) {
+                if (relabel[labels[x]] == -1) {
+                    relabel[labels[x]] = numLabels++;
+                }
+                labels[x] = relabel[labels[x]];
+            }
+        }
+    }
+}
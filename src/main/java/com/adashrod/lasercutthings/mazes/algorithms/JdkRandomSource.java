@@ -0,0 +1,48 @@
+package com.adashrod.lasercutthings.mazes.algorithms;
+
+import java.util.Random;
+
+/**
+ * A {@link RandomSource} backed by {@link Random}. This is the default for all generators since it's what they have
+ * always used, so seeds from before random sources were pluggable still produce the same mazes with it.
+ * @author adashrod@gmail.com
+ */
+public class JdkRandomSource implements RandomSource {
+    private final Random random;
+
+    public JdkRandomSource() {
+        random = new Random();
+    }
+
+    public JdkRandomSource(final long seed) {
+        random = new Random(seed);
+    }
+
+    @Override
+    public void setSeed(final long seed) {
+        random.setSeed(seed);
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    /**
+     * Random can't be split, so this seeds a new one from this one's next long
+     */
+    @Override
+    public RandomSource split() {
+        return new JdkRandomSource(random.nextLong());
+    }
+}
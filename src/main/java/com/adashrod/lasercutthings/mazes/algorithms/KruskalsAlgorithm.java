@@ -1,83 +1,115 @@
 package com.adashrod.lasercutthings.mazes.algorithms;
 
-import com.adashrod.lasercutthings.common.OrderedPair;
-import com.adashrod.lasercutthings.mazes.Direction;
 import com.adashrod.lasercutthings.mazes.models.Maze;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
-import static com.adashrod.lasercutthings.mazes.Direction.determineDirection;
+import static com.adashrod.lasercutthings.mazes.Direction.EAST;
+import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
 
 /**
  * An implementation of https://en.wikipedia.org/wiki/Kruskal%27s_algorithm for generating random 2D mazes with square
- * spaces
+ * spaces.
+ * Spaces are identified by their index y * numCols + x, and each edge is packed into an int as (space index << 1) | 1 for
+ * the wall south of that space, or (space index << 1) for the wall east of it. The disjoint set is a pair of arrays
+ * indexed by space, using union by rank and path halving, so building stays near-linear for large mazes.
  * @author adashrod@gmail.com
  */
 public class KruskalsAlgorithm extends MazeGenerator {
-    private Tree[][] parallelMatrix;
-    private final List<Edge> edges = new ArrayList<>();
-
     @Override
     public void buildPaths(final Maze maze) {
-        parallelMatrix = new Tree[maze.getNumRows()][maze.getNumCols()];
-        for (int y = 0; y < maze.getNumRows(); y++) {
-            for (int x = 0; x < maze.getNumCols(); x++) {
-                parallelMatrix[y][x] = new Tree();
-                if (x + 1 < maze.getNumCols()) {
-                    edges.add(new Edge(new OrderedPair<>(x, y), new OrderedPair<>(x + 1, y)));
-                }
-                if (y + 1 < maze.getNumRows()) {
-                    edges.add(new Edge(new OrderedPair<>(x, y), new OrderedPair<>(x,     y + 1)));
-                }
-            }
+        final int numCols = maze.getNumCols(), numRows = maze.getNumRows();
+        final long numEdges = (long) (numCols - 1) * numRows + (long) numCols * (numRows - 1);
+        // space indexes are shifted left by one in the packed edges
+        if ((long) numCols * numRows > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException(String.format("a %dx%d maze is too large for KruskalsAlgorithm",
+                numCols, numRows));
         }
-        Collections.shuffle(edges, rng);
+        final int[] edges = createEdges(numCols, numRows, (int) numEdges);
+        shuffle(edges);
 
-        for (final Edge e: edges) {
-            final OrderedPair<Integer> s1 = e.a;
-            final OrderedPair<Integer> s2 = e.b;
-            final Tree tree1 = parallelMatrix[s1.y][s1.x];
-            final Tree tree2 = parallelMatrix[s2.y][s2.x];
-            if (!tree1.isConnectedTo(tree2)) {
-                tree1.merge(tree2);
-                final Direction oneToTwo = determineDirection(s1, s2);
-                maze.getGrid()[s1.y][s1.x].openWall(oneToTwo);
-                maze.getGrid()[s2.y][s2.x].openWall(oneToTwo.opposite());
+        final DisjointSet disjointSet = new DisjointSet(numCols * numRows);
+        for (final int edge: edges) {
+            final int space = edge >>> 1;
+            final boolean isSouth = (edge & 1) == 1;
+            if (disjointSet.union(space, isSouth ? space + numCols : space + 1)) {
+                maze.openWall(space % numCols, space / numCols, isSouth ? SOUTH : EAST);
             }
         }
     }
 
     /**
-     * Simple unidirectional tree for implementing a disjoint set
+     * lists the edges in row-major order, east before south for each space
      */
-    static class Tree {
-        Tree parent = this;
-
-        Tree getRoot() {
-            return parent == this ? parent : parent.getRoot();
-        }
-
-        boolean isConnectedTo(final Tree otherTree) {
-            return getRoot() == otherTree.getRoot();
+    private int[] createEdges(final int numCols, final int numRows, final int numEdges) {
+        final int[] edges = new int[numEdges];
+        int i = 0;
+        for (int y = 0; y < numRows; y++) {
+            for (int x = 0; x < numCols; x++) {
+                final int space = y * numCols + x;
+                if (x + 1 < numCols) {
+                    edges[i++] = space << 1;
+                }
+                if (y + 1 < numRows) {
+                    edges[i++] = space << 1 | 1;
+                }
+            }
         }
+        return edges;
+    }
 
-        void merge(final Tree otherTree) {
-            otherTree.getRoot().parent = this;
+    /**
+     * Fisher-Yates shuffle that makes the same swaps as {@link java.util.Collections#shuffle(java.util.List,
+     * java.util.Random)}, so a seed produces the same maze as it did when the edges were kept in a list
+     */
+    private void shuffle(final int[] edges) {
+        for (int i = edges.length; i > 1; i--) {
+            final int j = rng.nextInt(i), swap = edges[i - 1];
+            edges[i - 1] = edges[j];
+            edges[j] = swap;
         }
     }
 
     /**
-     * An edge is determined by the coordinates of the two spaces that it separates
+     * Array-based disjoint set (union-find) over the spaces of a maze
      */
-    static class Edge {
-        final OrderedPair<Integer> a;
-        final OrderedPair<Integer> b;
+    static class DisjointSet {
+        private final int[] parent;
+        private final byte[] rank;
+
+        DisjointSet(final int size) {
+            parent = new int[size];
+            rank = new byte[size];
+            for (int i = 0; i < size; i++) {
+                parent[i] = i;
+            }
+        }
 
-        Edge(final OrderedPair<Integer> a, final OrderedPair<Integer> b) {
-            this.a = a;
-            this.b = b;
+        int find(final int element) {
+            int current = element;
+            while (parent[current] != current) {
+                // path halving: point every other node on the path at its grandparent
+                parent[current] = parent[parent[current]];
+                current = parent[current];
+            }
+            return current;
+        }
+
+        /**
+         * @return true if a and b were in different sets and have been merged, false if they were already connected
+         */
+        boolean union(final int a, final int b) {
+            final int rootA = find(a), rootB = find(b);
+            if (rootA == rootB) {
+                return false;
+            }
+            if (rank[rootA] < rank[rootB]) {
+                parent[rootA] = rootB;
+            } else if (rank[rootA] > rank[rootB]) {
+                parent[rootB] = rootA;
+            } else {
+                parent[rootB] = rootA;
+                rank[rootA]++;
+            }
+            return true;
         }
     }
 }
@@ -2,8 +2,6 @@ package com.adashrod.lasercutthings.mazes.algorithms;
 
 import com.adashrod.lasercutthings.mazes.models.Maze;
 
-import java.util.Random;
-
 /**
  * Subclasses can use any maze-generation algorithm to build the paths of a maze
  * @author adashrod@gmail.com
@@ -12,7 +10,8 @@ public abstract class MazeGenerator {
     /**
      * Used for making random decisions in building mazes. The seed can be set for reproducibility
      */
-    protected final Random rng = new Random();
+    protected RandomSource rng = new JdkRandomSource();
+    private Long seed;
 
     /**
      * This is where the random mazes get generated. Algorithms should set wall properties on the spaces in the supplied
@@ -28,6 +27,31 @@ public abstract class MazeGenerator {
      */
     public MazeGenerator setSeed(final long seed) {
         rng.setSeed(seed);
+        this.seed = seed;
         return this;
     }
+
+    /**
+     * @return the seed set with {@link MazeGenerator#setSeed(long)}, or null if it was never set
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Replaces the random number generator, e.g. with a faster {@link SplittableRandomSource} or with a stream split
+     * from another source. Call {@link MazeGenerator#setSeed(long)} afterward to seed the new source; a source that
+     * was split from a seeded one is already reproducible without a seed of its own.
+     * @param randomSource the new source
+     * @return this
+     */
+    public MazeGenerator setRandomSource(final RandomSource randomSource) {
+        rng = randomSource;
+        seed = null;
+        return this;
+    }
+
+    public RandomSource getRandomSource() {
+        return rng;
+    }
 }
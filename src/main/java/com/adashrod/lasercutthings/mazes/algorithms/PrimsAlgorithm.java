@@ -1,79 +1,146 @@
 package com.adashrod.lasercutthings.mazes.algorithms;
 
-import com.adashrod.lasercutthings.common.OrderedPair;
 import com.adashrod.lasercutthings.mazes.Direction;
-import com.adashrod.lasercutthings.mazes.Space;
 import com.adashrod.lasercutthings.mazes.models.Maze;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
+import java.util.BitSet;
 
 import static com.adashrod.lasercutthings.mazes.Direction.EAST;
 import static com.adashrod.lasercutthings.mazes.Direction.NORTH;
 import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
 import static com.adashrod.lasercutthings.mazes.Direction.WEST;
-import static com.adashrod.lasercutthings.mazes.Direction.determineDirection;
 
 /**
  * An implementation of https://en.wikipedia.org/wiki/Prim%27s_algorithm for generating random 2D mazes with square
- * spaces
+ * spaces.
+ * Spaces are identified by their index y * numCols + x. Membership in the path and in the frontier is tracked with
+ * bitsets. The frontier is picked from by position in the order that spaces were added to it, which is what makes a seed
+ * reproduce the same maze, so it's kept in a {@link Frontier} that can select and remove the i-th space in O(log n)
+ * rather than shifting a list on every removal.
  * @author adashrod@gmail.com
  */
 public class PrimsAlgorithm extends MazeGenerator {
+    private static final int[] DELTA_X = {0, 1, 0, -1};
+    private static final int[] DELTA_Y = {-1, 0, 1, 0};
+    private static final Direction[] DELTA_DIRECTIONS = {NORTH, EAST, SOUTH, WEST};
+
+    private final int[] onPathNeighbors = new int[DELTA_X.length];
     private Maze maze;
-    private final List<OrderedPair<Integer>> nextSpaces = new ArrayList<>();
-    private final Collection<OrderedPair<Integer>> onPath = new HashSet<>();
-    private final Collection<OrderedPair<Integer>> exploringNext = new HashSet<>();
-    private final List<OrderedPair<Integer>> deltas = Arrays.asList(
-        new OrderedPair<>(0, -1), new OrderedPair<>(1, 0), new OrderedPair<>(0, 1), new OrderedPair<>(-1, 0));
+    private BitSet onPath;
+    private BitSet exploringNext;
+    private Frontier nextSpaces;
 
     @Override
     public void buildPaths(final Maze maze) {
         this.maze = maze;
-        markOnPathAndAddUnexploredNeighborsToNext(rng.nextInt(maze.getNumCols()), rng.nextInt(maze.getNumRows()));
+        final int numCols = maze.getNumCols(), numSpaces = maze.getNumCols() * maze.getNumRows();
+        onPath = new BitSet(numSpaces);
+        exploringNext = new BitSet(numSpaces);
+        nextSpaces = new Frontier(numSpaces);
+        final int startX = rng.nextInt(numCols), startY = rng.nextInt(maze.getNumRows());
+        markOnPathAndAddUnexploredNeighborsToNext(startX, startY);
         while (!nextSpaces.isEmpty()) {
-            final OrderedPair<Integer> removed = nextSpaces.remove(rng.nextInt(nextSpaces.size()));
-            final List<OrderedPair<Integer>> neighbors = findOnPathNeighbors(removed.x, removed.y);
-            final OrderedPair<Integer> randNeighbor = neighbors.get(rng.nextInt(neighbors.size()));
+            final int removed = nextSpaces.remove(rng.nextInt(nextSpaces.size()));
+            final int x = removed % numCols, y = removed / numCols;
+            final int numNeighbors = findOnPathNeighbors(x, y);
+            final int randNeighbor = onPathNeighbors[rng.nextInt(numNeighbors)];
 
-            final Direction direction = determineDirection(removed, randNeighbor);
-            maze.getGrid()[removed.y][removed.x].openWall(direction);
-            maze.getGrid()[randNeighbor.y][randNeighbor.x].openWall(direction.opposite());
+            maze.openWall(x, y, DELTA_DIRECTIONS[randNeighbor]);
 
-            markOnPathAndAddUnexploredNeighborsToNext(removed.x, removed.y);
+            markOnPathAndAddUnexploredNeighborsToNext(x, y);
         }
     }
 
-    private void addToNextIfUnexplored(final int x, final int y) {
-        if (maze.isInBounds(x, y) && isUnexplored(x, y)) {
-            exploringNext.add(new OrderedPair<>(x, y));
-            nextSpaces.add(new OrderedPair<>(x, y));
+    private void markOnPathAndAddUnexploredNeighborsToNext(final int x, final int y) {
+        onPath.set(y * maze.getNumCols() + x);
+        for (int d = 0; d < DELTA_X.length; d++) {
+            final int nx = x + DELTA_X[d], ny = y + DELTA_Y[d];
+            if (maze.isInBounds(nx, ny)) {
+                final int index = ny * maze.getNumCols() + nx;
+                if (isUnexplored(index)) {
+                    exploringNext.set(index);
+                    nextSpaces.add(index);
+                }
+            }
         }
     }
 
-    private void markOnPathAndAddUnexploredNeighborsToNext(final int x, final int y) {
-        onPath.add(new OrderedPair<>(x, y));
-        deltas.forEach((final OrderedPair<Integer> delta) -> {
-            addToNextIfUnexplored(x + delta.x, y + delta.y);
-        });
+    /**
+     * fills {@link PrimsAlgorithm#onPathNeighbors} with the delta indexes of the neighbors that are on the path
+     * @return the number of neighbors found
+     */
+    private int findOnPathNeighbors(final int x, final int y) {
+        int numNeighbors = 0;
+        for (int d = 0; d < DELTA_X.length; d++) {
+            final int nx = x + DELTA_X[d], ny = y + DELTA_Y[d];
+            if (maze.isInBounds(nx, ny) && onPath.get(ny * maze.getNumCols() + nx)) {
+                onPathNeighbors[numNeighbors++] = d;
+            }
+        }
+        return numNeighbors;
     }
 
-    private List<OrderedPair<Integer>> findOnPathNeighbors(final int x, final int y) {
-        final List<OrderedPair<Integer>> n = new ArrayList<>();
-        deltas.forEach((final OrderedPair<Integer> delta) -> {
-            if (maze.isInBounds(x + delta.x, y + delta.y) && onPath.contains(new OrderedPair<>(x + delta.x, y + delta.y))) {
-                n.add(new OrderedPair<>(x + delta.x, y + delta.y));
-            }
-        });
-        return n;
+    /**
+     * A space is unexplored if it has never been added to the frontier and isn't on the path. (The only space that gets
+     * onto the path without going through the frontier is the starting space.)
+     */
+    private boolean isUnexplored(final int index) {
+        return !exploringNext.get(index) && !onPath.get(index);
     }
 
-    private boolean isUnexplored(final int x, final int y) {
-        final Space space = maze.getGrid()[y][x];
-        return !space.isOpen(NORTH) && !space.isOpen(EAST) && !space.isOpen(SOUTH) && !space.isOpen(WEST) &&
-            !exploringNext.contains(new OrderedPair<>(x, y));
+    /**
+     * An ordered list of space indexes that supports appending, and selecting and removing the i-th remaining element,
+     * in O(log n). Each space is appended at most once, so every appended space gets its own slot, and a Fenwick tree
+     * over the slots counts how many are still present before any given slot.
+     */
+    static class Frontier {
+        private final int[] slotValues;
+        private final int[] tree;
+        private final int highestPowerOfTwo;
+        private int numSlots;
+        private int size;
+
+        Frontier(final int capacity) {
+            slotValues = new int[capacity];
+            tree = new int[capacity + 1];
+            highestPowerOfTwo = capacity == 0 ? 0 : Integer.highestOneBit(capacity);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(final int value) {
+            slotValues[numSlots] = value;
+            for (int i = numSlots + 1; i < tree.length; i += i & -i) {
+                tree[i]++;
+            }
+            numSlots++;
+            size++;
+        }
+
+        /**
+         * @param position 0-based position among the remaining elements, in the order they were added
+         * @return the removed element
+         */
+        int remove(final int position) {
+            // descend the tree to find the slot with exactly position elements before it
+            int slot = 0, remaining = position;
+            for (int step = highestPowerOfTwo; step > 0; step >>= 1) {
+                if (slot + step < tree.length && tree[slot + step] <= remaining) {
+                    slot += step;
+                    remaining -= tree[slot];
+                }
+            }
+            for (int i = slot + 1; i < tree.length; i += i & -i) {
+                tree[i]--;
+            }
+            size--;
+            return slotValues[slot];
+        }
     }
 }
@@ -0,0 +1,33 @@
+package com.adashrod.lasercutthings.mazes.algorithms;
+
+/**
+ * A source of random numbers for {@link MazeGenerator}s. Implementations can be swapped to trade speed for
+ * compatibility with existing seeds, and can be split into independent streams so that parallel or batch generation
+ * can give each worker its own source while everything stays reproducible from one seed.
+ * Implementations are not thread-safe; split instead of sharing.
+ * @author adashrod@gmail.com
+ */
+public interface RandomSource {
+    /**
+     * restarts the sequence of random numbers from a seed
+     * @param seed
+     */
+    void setSeed(long seed);
+
+    /**
+     * @param bound exclusive upper bound; must be positive
+     * @return a uniformly distributed int in [0, bound)
+     */
+    int nextInt(int bound);
+
+    boolean nextBoolean();
+
+    long nextLong();
+
+    /**
+     * Creates a new, independent source of the same kind. This advances this source, so splitting the same source
+     * several times in the same order always gives the same new sources.
+     * @return the new source
+     */
+    RandomSource split();
+}
@@ -0,0 +1,50 @@
+package com.adashrod.lasercutthings.mazes.algorithms;
+
+import java.util.SplittableRandom;
+
+/**
+ * A {@link RandomSource} backed by {@link SplittableRandom}. It's faster than {@link JdkRandomSource} since it doesn't
+ * synchronize, and its splits are statistically independent streams. It generates different numbers than
+ * {@link java.util.Random} for the same seed, so mazes made with it can only be reproduced with it.
+ * @author adashrod@gmail.com
+ */
+public class SplittableRandomSource implements RandomSource {
+    private SplittableRandom random;
+
+    public SplittableRandomSource() {
+        random = new SplittableRandom();
+    }
+
+    public SplittableRandomSource(final long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    private SplittableRandomSource(final SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public void setSeed(final long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public RandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+}
@@ -0,0 +1,160 @@
+package com.adashrod.lasercutthings.mazes.algorithms;
+
+import com.adashrod.lasercutthings.mazes.models.Maze;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+import static com.adashrod.lasercutthings.mazes.Direction.EAST;
+import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
+
+/**
+ * Builds large mazes on several threads by splitting the grid into rectangular tiles, building each tile as its own
+ * maze with any other {@link MazeGenerator} in a {@link ForkJoinPool}, then stitching the tiles together.
+ * Since every tile is a spanning tree of its own spaces, the stitching only has to connect the tiles: a Kruskal-style
+ * pass over the shuffled pairs of neighboring tiles uses a disjoint set to open one random wall on the border between
+ * two tiles whenever they aren't already connected. The result is still a single spanning tree.
+ * Each tile's generator gets its own stream split from this generator's {@link RandomSource} before any tile is
+ * built, and the stitching only uses this generator's source, so a given seed produces the same maze no matter how
+ * many threads the pool has. Tiles use whichever kind of source this generator has.
+ * @author adashrod@gmail.com
+ */
+public class TiledParallelGenerator extends MazeGenerator {
+    /**
+     * tile widths are kept to multiples of this so that no two tiles ever share a word of the maze's wall storage, which
+     * lets tiles be copied into the maze concurrently
+     */
+    public static final int TILE_WIDTH_MULTIPLE = 64;
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    private final Supplier<? extends MazeGenerator> tileGeneratorFactory;
+    private int tileWidth = DEFAULT_TILE_SIZE;
+    private int tileHeight = DEFAULT_TILE_SIZE;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * @param tileGeneratorFactory creates a new generator for each tile, e.g. PrimsAlgorithm::new. A new one is needed
+     *                             per tile since generators aren't thread-safe
+     */
+    public TiledParallelGenerator(final Supplier<? extends MazeGenerator> tileGeneratorFactory) {
+        this.tileGeneratorFactory = tileGeneratorFactory;
+    }
+
+    /**
+     * @param tileWidth  width of each tile in spaces; rounded up to a multiple of {@link #TILE_WIDTH_MULTIPLE}
+     * @param tileHeight height of each tile in spaces
+     * @return this
+     */
+    public TiledParallelGenerator setTileSize(final int tileWidth, final int tileHeight) {
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException(String.format("tile size must be positive: %dx%d", tileWidth, tileHeight));
+        }
+        this.tileWidth = (tileWidth + TILE_WIDTH_MULTIPLE - 1) / TILE_WIDTH_MULTIPLE * TILE_WIDTH_MULTIPLE;
+        this.tileHeight = tileHeight;
+        return this;
+    }
+
+    /**
+     * @param pool the pool to build tiles in; defaults to the common pool
+     * @return this
+     */
+    public TiledParallelGenerator setPool(final ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    @Override
+    public void buildPaths(final Maze maze) {
+        final int numTileCols = (maze.getNumCols() + tileWidth - 1) / tileWidth,
+            numTileRows = (maze.getNumRows() + tileHeight - 1) / tileHeight;
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int tileY = 0; tileY < numTileRows; tileY++) {
+            for (int tileX = 0; tileX < numTileCols; tileX++) {
+                final int originX = tileX * tileWidth, originY = tileY * tileHeight;
+                final RandomSource tileRng = rng.split();
+                tasks.add(ForkJoinTask.adapt(() -> buildTile(maze, originX, originY, tileRng)));
+            }
+        }
+        tasks.forEach(pool::execute);
+        tasks.forEach(ForkJoinTask::join);
+        stitchTiles(maze, numTileCols, numTileRows);
+    }
+
+    private void buildTile(final Maze maze, final int originX, final int originY, final RandomSource tileRng) {
+        final Maze tile = new Maze(Math.min(tileWidth, maze.getNumCols() - originX),
+            Math.min(tileHeight, maze.getNumRows() - originY));
+        tile.build(tileGeneratorFactory.get().setRandomSource(tileRng));
+        final int wordOffset = originX / TILE_WIDTH_MULTIPLE;
+        for (int y = 0; y < tile.getNumRows(); y++) {
+            for (int w = 0; w < tile.getWordsPerRow(); w++) {
+                maze.openEastWalls(originY + y, wordOffset + w, tile.getEastOpenWord(y, w));
+                maze.openSouthWalls(originY + y, wordOffset + w, tile.getSouthOpenWord(y, w));
+            }
+        }
+    }
+
+    /**
+     * Kruskal's algorithm on the graph of tiles: each pair of neighboring tiles is an edge, and joining two tiles
+     * opens one random wall along their shared border
+     */
+    private void stitchTiles(final Maze maze, final int numTileCols, final int numTileRows) {
+        final int numTiles = numTileCols * numTileRows;
+        // pair p joins tile p / 2 with its east neighbor if p is even, or its south neighbor if p is odd
+        final int[] pairs = new int[2 * numTiles];
+        int numPairs = 0;
+        for (int tile = 0; tile < numTiles; tile++) {
+            if (tile % numTileCols + 1 < numTileCols) {
+                pairs[numPairs++] = 2 * tile;
+            }
+            if (tile / numTileCols + 1 < numTileRows) {
+                pairs[numPairs++] = 2 * tile + 1;
+            }
+        }
+        for (int i = numPairs - 1; i > 0; i--) {
+            final int j = rng.nextInt(i + 1), swap = pairs[i];
+            pairs[i] = pairs[j];
+            pairs[j] = swap;
+        }
+        final int[] parent = new int[numTiles];
+        for (int tile = 0; tile < numTiles; tile++) {
+            parent[tile] = tile;
+        }
+        for (int i = 0; i < numPairs; i++) {
+            final int tile = pairs[i] / 2;
+            final boolean isSouthPair = pairs[i] % 2 == 1;
+            final int neighbor = isSouthPair ? tile + numTileCols : tile + 1;
+            final int root = find(parent, tile), neighborRoot = find(parent, neighbor);
+            if (root != neighborRoot) {
+                parent[neighborRoot] = root;
+                openBorderWall(maze, tile % numTileCols * tileWidth, tile / numTileCols * tileHeight, isSouthPair);
+            }
+        }
+    }
+
+    private void openBorderWall(final Maze maze, final int originX, final int originY, final boolean isSouthBorder) {
+        if (isSouthBorder) {
+            final int borderLength = Math.min(tileWidth, maze.getNumCols() - originX);
+            maze.openWall(originX + rng.nextInt(borderLength), originY + tileHeight - 1, SOUTH);
+        } else {
+            final int borderLength = Math.min(tileHeight, maze.getNumRows() - originY);
+            maze.openWall(originX + tileWidth - 1, originY + rng.nextInt(borderLength), EAST);
+        }
+    }
+
+    private static int find(final int[] parent, final int element) {
+        int root = element;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        int current = element;
+        while (parent[current] != root) {
+            final int next = parent[current];
+            parent[current] = root;
+            current = next;
+        }
+        return root;
+    }
+}
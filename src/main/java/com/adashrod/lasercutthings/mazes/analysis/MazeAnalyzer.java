@@ -0,0 +1,281 @@
+package com.adashrod.lasercutthings.mazes.analysis;
+
+import com.adashrod.lasercutthings.common.OrderedPair;
+import com.adashrod.lasercutthings.mazes.Direction;
+import com.adashrod.lasercutthings.mazes.models.Maze;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.adashrod.lasercutthings.mazes.Direction.EAST;
+import static com.adashrod.lasercutthings.mazes.Direction.NORTH;
+import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
+import static com.adashrod.lasercutthings.mazes.Direction.WEST;
+
+/**
+ * Measures a {@link Maze} for choosing the hardest of several candidates, and places its entrance and exit.
+ * Spaces are identified by their index y * numCols + x. The open walls between spaces are read out of the maze's packed
+ * words once into a byte per space, with one bit per direction, and everything else works on that: the distances are an
+ * int[] and the breadth-first search queue is a plain int[] with head and tail indexes, so each search is linear in the
+ * number of spaces and allocates nothing per step. The diameter uses the double-BFS method, which is exact for perfect
+ * mazes since they are trees.
+ * An analyzer isn't thread-safe, but analyzers for different mazes can run concurrently; see
+ * {@link MazeAnalyzer#analyzeAll(List)}.
+ * @author adashrod@gmail.com
+ */
+public class MazeAnalyzer {
+    private static final int[] DELTA_X = {0, 1, 0, -1};
+    private static final int[] DELTA_Y = {-1, 0, 1, 0};
+    private static final Direction[] DELTA_DIRECTIONS = {NORTH, EAST, SOUTH, WEST};
+    private static final int NORTH_BIT = 1, EAST_BIT = 2, SOUTH_BIT = 4, WEST_BIT = 8;
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    private final Maze maze;
+    private final int numCols;
+    private final int numRows;
+    private final int numSpaces;
+    private final int[] deltaIndex;
+    private byte[] exits;
+    private int[] distances;
+    private int[] queue;
+
+    public MazeAnalyzer(final Maze maze) {
+        if ((long) maze.getNumCols() * maze.getNumRows() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("a %dx%d maze is too large for MazeAnalyzer",
+                maze.getNumCols(), maze.getNumRows()));
+        }
+        this.maze = maze;
+        numCols = maze.getNumCols();
+        numRows = maze.getNumRows();
+        numSpaces = numCols * numRows;
+        deltaIndex = new int[DELTA_X.length];
+        for (int d = 0; d < DELTA_X.length; d++) {
+            deltaIndex[d] = DELTA_Y[d] * numCols + DELTA_X[d];
+        }
+    }
+
+    /**
+     * Measures the maze as it is now. The exits are re-read every time, so this can be called again after the maze
+     * changes.
+     * @return the metrics
+     */
+    public MazeMetrics analyze() {
+        findExits();
+
+        int numDeadEnds = 0;
+        int[] histogram = new int[0];
+        for (int space = 0; space < numSpaces; space++) {
+            final int degree = Integer.bitCount(exits[space]);
+            if (degree == 1) {
+                numDeadEnds++;
+            }
+            if (degree == 2) {
+                continue;
+            }
+            for (int d = 0; d < DELTA_X.length; d++) {
+                if ((exits[space] & 1 << d) != 0) {
+                    final int corridorLength = walkCorridor(space, d);
+                    if (corridorLength > 0) {
+                        if (corridorLength >= histogram.length) {
+                            histogram = Arrays.copyOf(histogram, corridorLength + 1);
+                        }
+                        histogram[corridorLength]++;
+                    }
+                }
+            }
+        }
+
+        final int farthest = search(0, false);
+        final int diameterEnd = search(farthest, false);
+        final int diameter = distances[diameterEnd];
+
+        int solutionLength = -1;
+        final int[] openings = findOpenings();
+        if (openings != null) {
+            search(openings[0], false);
+            solutionLength = distances[openings[1]];
+        }
+
+        return new MazeMetrics(numCols, numRows, solutionLength, numDeadEnds, histogram, diameter, toPair(farthest),
+            toPair(diameterEnd));
+    }
+
+    /**
+     * Opens the outer walls of the two border spaces that are farthest apart, which makes the solution as long as the
+     * maze allows. Any openings that are already in the outer wall are left alone.
+     * @return the length of the solution between the new entrance and exit
+     */
+    public int openEntranceAndExit() {
+        findExits();
+        // in a tree, the farthest border space from any space is one end of a longest path between border spaces
+        final int entrance = search(0, true);
+        final int exit = search(entrance, true);
+        final int solutionLength = distances[exit];
+        final Direction entranceDirection = findOutwardDirection(entrance, null);
+        maze.openWall(entrance % numCols, entrance / numCols, entranceDirection);
+        // a 1x1 maze only has one border space, so its exit has to be on a different side
+        maze.openWall(exit % numCols, exit / numCols,
+            findOutwardDirection(exit, entrance == exit ? entranceDirection : null));
+        return solutionLength;
+    }
+
+    /**
+     * Analyzes many mazes at once on the common fork-join pool
+     * @param mazes mazes to analyze
+     * @return metrics in the same order as the mazes
+     */
+    public static List<MazeMetrics> analyzeAll(final List<? extends Maze> mazes) {
+        return mazes.parallelStream()
+            .map(maze -> new MazeAnalyzer(maze).analyze())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Analyzes the candidates in parallel and picks the one that compares highest
+     * @param candidates mazes to pick from
+     * @param hardness   how to rank the mazes, e.g. {@link MazeMetrics#BY_DIAMETER}
+     * @return the hardest candidate, or null if there are none
+     */
+    public static <M extends Maze> M selectBest(final List<M> candidates, final Comparator<? super MazeMetrics> hardness) {
+        final List<MazeMetrics> metrics = analyzeAll(candidates);
+        int best = -1;
+        for (int i = 0; i < metrics.size(); i++) {
+            if (best == -1 || hardness.compare(metrics.get(i), metrics.get(best)) > 0) {
+                best = i;
+            }
+        }
+        return best == -1 ? null : candidates.get(best);
+    }
+
+    /**
+     * fills {@link MazeAnalyzer#exits} from the maze's packed east and south walls, one word at a time. Walls in the
+     * outer border aren't included.
+     */
+    private void findExits() {
+        exits = new byte[numSpaces];
+        for (int y = 0; y < numRows; y++) {
+            for (int w = 0; w < maze.getWordsPerRow(); w++) {
+                long east = maze.getEastOpenWord(y, w);
+                while (east != 0) {
+                    final int x = w * BITS_PER_WORD + Long.numberOfTrailingZeros(east);
+                    east &= east - 1;
+                    if (x + 1 < numCols) {
+                        exits[y * numCols + x] |= EAST_BIT;
+                        exits[y * numCols + x + 1] |= WEST_BIT;
+                    }
+                }
+                if (y + 1 < numRows) {
+                    long south = maze.getSouthOpenWord(y, w);
+                    while (south != 0) {
+                        final int x = w * BITS_PER_WORD + Long.numberOfTrailingZeros(south);
+                        south &= south - 1;
+                        if (x < numCols) {
+                            exits[y * numCols + x] |= SOUTH_BIT;
+                            exits[(y + 1) * numCols + x] |= NORTH_BIT;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Follows a corridor out of a dead end or junction until it reaches another one. Each corridor is walked once from
+     * each end, so it's only counted from the end with the lower index (or, for a loop, the lower starting direction).
+     * @return the length of the corridor, or 0 if it's counted from the other end
+     */
+    private int walkCorridor(final int start, final int direction) {
+        int current = start + deltaIndex[direction], lastDirection = direction, length = 1;
+        while (Integer.bitCount(exits[current]) == 2) {
+            final int forward = exits[current] & ~(1 << opposite(lastDirection));
+            lastDirection = Integer.numberOfTrailingZeros(forward);
+            current += deltaIndex[lastDirection];
+            length++;
+        }
+        if (current > start || current == start && direction < opposite(lastDirection)) {
+            return length;
+        }
+        return 0;
+    }
+
+    /**
+     * breadth-first search that fills {@link MazeAnalyzer#distances}; unreachable spaces get -1
+     * @param start      index of the space to search from
+     * @param borderOnly whether to only consider border spaces for the result
+     * @return index of the farthest (border) space from start, the first one found if there's a tie
+     */
+    private int search(final int start, final boolean borderOnly) {
+        if (distances == null) {
+            distances = new int[numSpaces];
+            queue = new int[numSpaces];
+        }
+        Arrays.fill(distances, -1);
+        int head = 0, tail = 0, farthest = -1;
+        distances[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            final int space = queue[head++];
+            if ((!borderOnly || isOnBorder(space)) && (farthest == -1 || distances[space] > distances[farthest])) {
+                farthest = space;
+            }
+            for (int d = 0; d < DELTA_X.length; d++) {
+                if ((exits[space] & 1 << d) != 0) {
+                    final int neighbor = space + deltaIndex[d];
+                    if (distances[neighbor] == -1) {
+                        distances[neighbor] = distances[space] + 1;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+        }
+        return farthest;
+    }
+
+    /**
+     * @return indexes of the border spaces of the first two openings in the outer wall, in index order (the same space
+     * twice if it has two), or null if there are fewer than two
+     */
+    private int[] findOpenings() {
+        final int[] openings = new int[2];
+        int numOpenings = 0;
+        for (int space = 0; space < numSpaces && numOpenings < openings.length; space++) {
+            if (isOnBorder(space)) {
+                final int x = space % numCols, y = space / numCols;
+                for (int d = 0; d < DELTA_X.length && numOpenings < openings.length; d++) {
+                    if (!maze.isInBounds(x + DELTA_X[d], y + DELTA_Y[d]) && maze.isOpen(x, y, DELTA_DIRECTIONS[d])) {
+                        openings[numOpenings++] = space;
+                    }
+                }
+            }
+        }
+        return numOpenings == openings.length ? openings : null;
+    }
+
+    /**
+     * @return the first of W, N, E, S that faces out of the maze from the border space, skipping the excluded direction
+     */
+    private Direction findOutwardDirection(final int space, final Direction excluded) {
+        final int x = space % numCols, y = space / numCols;
+        for (final int d: new int[] {3, 0, 1, 2}) {
+            if (!maze.isInBounds(x + DELTA_X[d], y + DELTA_Y[d]) && DELTA_DIRECTIONS[d] != excluded) {
+                return DELTA_DIRECTIONS[d];
+            }
+        }
+        throw new IllegalStateException(String.format("(%d, %d) has no outer wall to open", x, y));
+    }
+
+    private boolean isOnBorder(final int space) {
+        final int x = space % numCols, y = space / numCols;
+        return x == 0 || y == 0 || x == numCols - 1 || y == numRows - 1;
+    }
+
+    private OrderedPair<Integer> toPair(final int space) {
+        return new OrderedPair<>(space % numCols, space / numCols);
+    }
+
+    private static int opposite(final int direction) {
+        return (direction + 2) % DELTA_X.length;
+    }
+}
@@ -0,0 +1,68 @@
+package com.adashrod.lasercutthings.mazes.analysis;
+
+import com.adashrod.lasercutthings.common.OrderedPair;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Measurements of one {@link com.adashrod.lasercutthings.mazes.models.Maze}, made by {@link MazeAnalyzer}. All lengths
+ * are numbers of steps between neighboring spaces.
+ * @author adashrod@gmail.com
+ */
+public class MazeMetrics {
+    public static final Comparator<MazeMetrics> BY_SOLUTION_LENGTH = Comparator.comparingInt(m -> m.solutionLength);
+    public static final Comparator<MazeMetrics> BY_DIAMETER = Comparator.comparingInt(m -> m.diameter);
+    public static final Comparator<MazeMetrics> BY_DEAD_ENDS = Comparator.comparingInt(m -> m.numDeadEnds);
+
+    public final int numCols;
+    public final int numRows;
+    /**
+     * length of the path between the first two openings in the outer wall, or -1 if the maze has fewer than two
+     * openings or they aren't connected
+     */
+    public final int solutionLength;
+    /**
+     * spaces with exactly one open wall to another space; openings in the outer wall aren't counted
+     */
+    public final int numDeadEnds;
+    /**
+     * corridorLengthHistogram[n] is the number of corridors of length n, where a corridor is a run of spaces between two
+     * spaces that are dead ends or junctions
+     */
+    public final int[] corridorLengthHistogram;
+    /**
+     * length of the longest path between any two spaces
+     */
+    public final int diameter;
+    public final OrderedPair<Integer> diameterStart;
+    public final OrderedPair<Integer> diameterEnd;
+
+    MazeMetrics(final int numCols, final int numRows, final int solutionLength, final int numDeadEnds,
+            final int[] corridorLengthHistogram, final int diameter, final OrderedPair<Integer> diameterStart,
+            final OrderedPair<Integer> diameterEnd) {
+        this.numCols = numCols;
+        this.numRows = numRows;
+        this.solutionLength = solutionLength;
+        this.numDeadEnds = numDeadEnds;
+        this.corridorLengthHistogram = corridorLengthHistogram;
+        this.diameter = diameter;
+        this.diameterStart = diameterStart;
+        this.diameterEnd = diameterEnd;
+    }
+
+    public int getNumCorridors() {
+        return Arrays.stream(corridorLengthHistogram).sum();
+    }
+
+    public int getLongestCorridor() {
+        return corridorLengthHistogram.length - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MazeMetrics[%dx%d, solutionLength=%d, numDeadEnds=%d, numCorridors=%d, longestCorridor=%d, diameter=%d from (%d, %d) to (%d, %d)]",
+            numCols, numRows, solutionLength, numDeadEnds, getNumCorridors(), getLongestCorridor(), diameter,
+            diameterStart.x, diameterStart.y, diameterEnd.x, diameterEnd.y);
+    }
+}
@@ -0,0 +1,222 @@
+package com.adashrod.lasercutthings.mazes.factories;
+
+import com.adashrod.lasercutthings.mazes.models.LinearWallModel;
+import com.adashrod.lasercutthings.mazes.models.Maze;
+import com.adashrod.lasercutthings.mazes.models.Path;
+import com.adashrod.lasercutthings.mazes.models.RectangularWallModel;
+import com.adashrod.lasercutthings.mazes.models.Shape;
+import com.adashrod.lasercutthings.mazes.models.SheetWallModel;
+import com.adashrod.lasercutthings.mazes.models.VectorNumber;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.adashrod.lasercutthings.mazes.Direction.EAST;
+import static com.adashrod.lasercutthings.mazes.Direction.NORTH;
+import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
+import static com.adashrod.lasercutthings.mazes.Direction.WEST;
+
+/**
+ * An instance of FusedSheetWallModelGenerator creates a {@link SheetWallModel} straight from a {@link Maze}, in place of
+ * running {@link LinearWallModelGenerator}, {@link RectangularWallModelGenerator} and {@link SheetWallModelGenerator}
+ * one after another.
+ * The lanes of the maze are scanned in batches and each wall is trimmed as soon as it's read, so no
+ * {@link LinearWallModel} is built and no grid of wall corners is kept. A wall in the second direction is trimmed where
+ * one of its ends touches a wall in the favored direction, which is the case if the favored lane through that end has a
+ * wall on either side of it; that's two lookups in the maze. The trimmed walls go straight into the primitive columns
+ * that {@link SheetWallModelGenerator} makes the pieces from.
+ * The staged generators are kept as the reference implementation: with {@link FusedSheetWallModelGenerator#setVerify}
+ * both are run and the results are compared.
+ * @author adashrod@gmail.com
+ */
+public class FusedSheetWallModelGenerator {
+    private final Maze maze;
+    private final SheetWallModelGenerator.Config config;
+    private final int numCols;
+    private final int numRows;
+    private boolean favorEwWalls;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private boolean verify;
+
+    public FusedSheetWallModelGenerator(final Maze maze, final SheetWallModelGenerator.Config config) {
+        this.maze = maze;
+        this.config = config;
+        numCols = maze.getNumCols();
+        numRows = maze.getNumRows();
+    }
+
+    /**
+     * defaults to false, like {@link LinearWallModelGenerator}, so that both pipelines make the same walls by default
+     * @see LinearWallModelGenerator#setFavorEw(boolean)
+     */
+    public FusedSheetWallModelGenerator setFavorEw(final boolean favorEwWalls) {
+        this.favorEwWalls = favorEwWalls;
+        return this;
+    }
+
+    /**
+     * @see LinearWallModelGenerator#setPool(ForkJoinPool)
+     */
+    public FusedSheetWallModelGenerator setPool(final ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * @param verify if true, {@link FusedSheetWallModelGenerator#generate()} also runs the staged generators and throws
+     *               an IllegalStateException if their result differs in any way. This is much slower; it's for testing
+     *               changes to either pipeline.
+     * @return this
+     */
+    public FusedSheetWallModelGenerator setVerify(final boolean verify) {
+        this.verify = verify;
+        return this;
+    }
+
+    public SheetWallModel generate() {
+        final RectangularWallModel rectangularWallModel = new RectangularWallModel(2 * numCols + 1, 2 * numRows + 1);
+        final Iterator<LinearWallModel> batches = new LinearWallModelGenerator(maze).setFavorEw(favorEwWalls)
+            .setPool(pool).batchIterator();
+        while (batches.hasNext()) {
+            final LinearWallModel batch = batches.next();
+            for (int i = 0; i < batch.getNumWalls(); i++) {
+                addTrimmedWall(rectangularWallModel, batch.getStartX(i), batch.getStartY(i), batch.getEndX(i),
+                    batch.getEndY(i), batch.isVertical(i));
+            }
+        }
+        final SheetWallModel sheetWallModel = new SheetWallModelGenerator(rectangularWallModel, config).generate();
+        if (verify) {
+            final LinearWallModel linearWallModel = new LinearWallModelGenerator(maze).setFavorEw(favorEwWalls)
+                .setPool(pool).generate();
+            final SheetWallModel expected = new SheetWallModelGenerator(
+                new RectangularWallModelGenerator(linearWallModel).generate(), config).generate();
+            final String difference = findDifference(expected, sheetWallModel);
+            if (difference != null) {
+                throw new IllegalStateException("the fused and staged pipelines disagree on " + difference);
+            }
+        }
+        return sheetWallModel;
+    }
+
+    private void addTrimmedWall(final RectangularWallModel rectangularWallModel, final int startX, final int startY,
+            final int endX, final int endY, final boolean wallIsVertical) {
+        int wsx = startX * 2, wex = endX * 2, wsy = startY * 2, wey = endY * 2;
+        if (wallIsVertical == favorEwWalls) {
+            final boolean trimStart = hasFavoredWall(startX, startY), trimEnd = hasFavoredWall(endX, endY);
+            if (wallIsVertical) {
+                if (trimStart) { wsy++; }
+                if (trimEnd) { wey--; }
+            } else {
+                if (trimStart) { wsx++; }
+                if (trimEnd) { wex--; }
+            }
+        }
+        rectangularWallModel.addWall(wsx, wsy, wex, wey, wallIsVertical ? SOUTH : EAST);
+    }
+
+    /**
+     * @return true if a wall in the favored direction covers the corner at (cornerX, cornerY)
+     */
+    private boolean hasFavoredWall(final int cornerX, final int cornerY) {
+        if (favorEwWalls) {
+            return hasEwWall(cornerX - 1, cornerY) || hasEwWall(cornerX, cornerY);
+        }
+        return hasNsWall(cornerX, cornerY - 1) || hasNsWall(cornerX, cornerY);
+    }
+
+    /**
+     * @return true if there's a wall along the top of space (x, y); y == numRows is the bottom border
+     */
+    private boolean hasEwWall(final int x, final int y) {
+        if (x < 0 || x >= numCols) {
+            return false;
+        }
+        return y < numRows ? !maze.isOpen(x, y, NORTH) : !maze.isOpen(x, numRows - 1, SOUTH);
+    }
+
+    /**
+     * @return true if there's a wall along the left of space (x, y); x == numCols is the right border
+     */
+    private boolean hasNsWall(final int x, final int y) {
+        if (y < 0 || y >= numRows) {
+            return false;
+        }
+        return x < numCols ? !maze.isOpen(x, y, WEST) : !maze.isOpen(numCols - 1, y, EAST);
+    }
+
+    /**
+     * @return a description of the first part that differs, or null if the models are the same
+     */
+    private static String findDifference(final SheetWallModel expected, final SheetWallModel actual) {
+        if (expected.outOfBounds != actual.outOfBounds) {
+            return "outOfBounds";
+        }
+        if (!isSameShape(expected.floorNotches, actual.floorNotches)) {
+            return "floorNotches";
+        }
+        if (!isSameShape(expected.floorOutline, actual.floorOutline)) {
+            return "floorOutline";
+        }
+        final String wallDifference = findWallDifference(expected, actual);
+        return wallDifference != null ? wallDifference : findFloorNumberDifference(expected, actual);
+    }
+
+    /**
+     * @return a description of the first wall or wall label that differs, or null if they're the same
+     */
+    private static String findWallDifference(final SheetWallModel expected, final SheetWallModel actual) {
+        if (expected.walls.size() != actual.walls.size()) {
+            return String.format("the number of walls: %d vs %d", expected.walls.size(), actual.walls.size());
+        }
+        for (int i = 0; i < expected.walls.size(); i++) {
+            if (!isSameShape(expected.walls.get(i), actual.walls.get(i))) {
+                return "wall " + i;
+            }
+            if (!isSameNumber(expected.wallLabels.get(expected.walls.get(i)),
+                    actual.wallLabels.get(actual.walls.get(i)))) {
+                return "the label of wall " + i;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a description of the first floor number that differs, or null if they're the same
+     */
+    private static String findFloorNumberDifference(final SheetWallModel expected, final SheetWallModel actual) {
+        if (expected.floorNumbers.size() != actual.floorNumbers.size()) {
+            return String.format("the number of floor numbers: %d vs %d", expected.floorNumbers.size(),
+                actual.floorNumbers.size());
+        }
+        for (int i = 0; i < expected.floorNumbers.size(); i++) {
+            if (!isSameNumber(expected.floorNumbers.get(i), actual.floorNumbers.get(i))) {
+                return "floor number " + i;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSameShape(final Shape expected, final Shape actual) {
+        final List<Path> expectedPaths = expected.paths, actualPaths = actual.paths;
+        if (expectedPaths.size() != actualPaths.size()) {
+            return false;
+        }
+        for (int i = 0; i < expectedPaths.size(); i++) {
+            if (!expectedPaths.get(i).equals(actualPaths.get(i)) ||
+                    expectedPaths.get(i).isClosed != actualPaths.get(i).isClosed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSameNumber(final VectorNumber expected, final VectorNumber actual) {
+        if (expected == null || actual == null) {
+            return expected == actual;
+        }
+        return expected.number == actual.number && expected.width == actual.width && expected.height == actual.height &&
+            Objects.equals(expected.position, actual.position);
+    }
+}
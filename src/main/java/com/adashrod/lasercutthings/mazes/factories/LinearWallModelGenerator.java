@@ -1,23 +1,37 @@
 package com.adashrod.lasercutthings.mazes.factories;
 
-import com.adashrod.lasercutthings.common.OrderedPair;
-import com.adashrod.lasercutthings.mazes.Direction;
 import com.adashrod.lasercutthings.mazes.models.Maze;
-import com.adashrod.lasercutthings.mazes.Space;
 import com.adashrod.lasercutthings.mazes.models.LinearWallModel;
 
-import static com.adashrod.lasercutthings.mazes.Direction.EAST;
-import static com.adashrod.lasercutthings.mazes.Direction.NORTH;
-import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
-import static com.adashrod.lasercutthings.mazes.Direction.WEST;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An instance of LinearWallModelGenerator can be used to create a {@link LinearWallModel} from a {@link Maze}
  * @author adashrod@gmail.com
  */
 public class LinearWallModelGenerator {
+    private static final int BITS_PER_WORD = Long.SIZE;
+    private static final long LOW_HALF_MASK = 0x00000000FFFFFFFFL;
+    /**
+     * a multiple of 64 so that a batch of columns lines up with the maze's words
+     */
+    private static final int LANES_PER_TASK = BITS_PER_WORD;
+
     private final Maze maze;
     private boolean favorEwWalls;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
 
     public LinearWallModelGenerator(final Maze maze) {
         this.maze = maze;
@@ -43,38 +57,146 @@ public class LinearWallModelGenerator {
         return favorEwWalls;
     }
 
+    /**
+     * @param pool the pool to process lanes in; defaults to the common pool
+     * @return this
+     */
+    public LinearWallModelGenerator setPool(final ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Lanes are independent of each other, so batches of lanes are processed in parallel, each collecting its own walls.
+     * The batches are joined in lane order, so the model is the same no matter how many threads the pool has.
+     * @return a new model of the maze's walls
+     */
     public LinearWallModel generate() {
-        final int width = maze.getNumCols(), height = maze.getNumRows(), lastCol = width - 1, lastRow = height - 1;
-        final LinearWallModel linearWallModel = new LinearWallModel(width, height, favorEwWalls);
+        final LinearWallModel linearWallModel = new LinearWallModel(maze.getNumCols(), maze.getNumRows(), favorEwWalls);
+        final List<ForkJoinTask<LinearWallModel>> tasks = new ArrayList<>();
+        for (final Supplier<LinearWallModel> batch: createLaneBatches()) {
+            tasks.add(ForkJoinTask.adapt(batch::get));
+        }
+        tasks.forEach(pool::execute);
+        for (final ForkJoinTask<LinearWallModel> task: tasks) {
+            linearWallModel.addWalls(task.join());
+        }
+        return linearWallModel;
+    }
 
+    /**
+     * Streams the same walls as {@link LinearWallModelGenerator#generate()}, in the same order, without collecting
+     * them all first, so that a consumer can start on the first lanes while later ones are still being scanned. Batches
+     * of lanes are scanned in the pool ahead of the consumer, but no more than the pool's parallelism at a time: a slow
+     * consumer holds back the scanning instead of letting walls pile up in memory.
+     * All walls in the favored direction come before all walls in the other direction.
+     * @return a sequential stream of walls
+     */
+    public Stream<LinearWallModel.Wall> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batchIterator(),
+            Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .flatMap(batch -> batch.walls.stream());
+    }
+
+    /**
+     * @see LinearWallModelGenerator#stream(), but each element is the model of one batch of lanes, so that the walls
+     * can be read as primitives
+     */
+    Iterator<LinearWallModel> batchIterator() {
+        return new PrefetchingIterator(createLaneBatches().iterator(), pool, pool.getParallelism());
+    }
+
+    /**
+     * @return the batches of lanes, in the order that their walls are added to the model
+     */
+    private List<Supplier<LinearWallModel>> createLaneBatches() {
+        final List<Supplier<LinearWallModel>> batches = new ArrayList<>();
         if (favorEwWalls) {
-            // make north walls of the rows
-            for (int y = 0; y < height; y++) {
-                makeWallsForLane(linearWallModel, y, width, false, NORTH, null, false);
-            }
-            // south wall of final row
-            makeWallsForLane(linearWallModel, lastRow, width, false, SOUTH, null, true);
-            // make west walls of columns
-            for (int x = 0; x < width; x++) {
-                makeWallsForLane(linearWallModel, x, height, true, WEST, SOUTH, false);
-            }
-            // east wall of final column
-            makeWallsForLane(linearWallModel, lastCol, height, true, EAST, SOUTH, true);
+            addRowBatches(batches, false);
+            addColumnBatches(batches, true);
         } else {
-            // make west walls of columns
-            for (int x = 0; x < width; x++) {
-                makeWallsForLane(linearWallModel, x, height, true, WEST, null, false);
+            addColumnBatches(batches, false);
+            addRowBatches(batches, true);
+        }
+        return batches;
+    }
+
+    private void addRowBatches(final List<Supplier<LinearWallModel>> batches, final boolean checkOverlap) {
+        for (int y = 0; y < maze.getNumRows(); y += LANES_PER_TASK) {
+            final int fromRow = y, toRow = Math.min(maze.getNumRows(), y + LANES_PER_TASK);
+            batches.add(() -> makeRowWalls(fromRow, toRow, checkOverlap));
+        }
+    }
+
+    private void addColumnBatches(final List<Supplier<LinearWallModel>> batches,
+            final boolean checkOverlap) {
+        for (int x = 0; x < maze.getNumCols(); x += LANES_PER_TASK) {
+            final int fromCol = x, toCol = Math.min(maze.getNumCols(), x + LANES_PER_TASK);
+            batches.add(() -> makeColumnWalls(fromCol, toCol, checkOverlap));
+        }
+    }
+
+    /**
+     * makes the north walls of rows fromRow until toRow, and the south wall of the final row if toRow is the end
+     */
+    private LinearWallModel makeRowWalls(final int fromRow, final int toRow, final boolean checkOverlap) {
+        final int width = maze.getNumCols(), lastRow = maze.getNumRows() - 1;
+        final LinearWallModel walls = new LinearWallModel(width, maze.getNumRows(), favorEwWalls);
+        final long[] rowWalls = new long[maze.getWordsPerRow()], rowBlocked = new long[rowWalls.length];
+        for (int y = fromRow; y < toRow; y++) {
+            readRowLane(y, false, checkOverlap, rowWalls, rowBlocked);
+            makeWallsForLane(walls, y, width, false, false, rowWalls, checkOverlap ? rowBlocked : null);
+        }
+        if (toRow == lastRow + 1) {
+            readRowLane(lastRow, true, checkOverlap, rowWalls, rowBlocked);
+            makeWallsForLane(walls, lastRow, width, false, true, rowWalls, checkOverlap ? rowBlocked : null);
+        }
+        return walls;
+    }
+
+    /**
+     * makes the west walls of columns fromCol until toCol, and the east wall of the final column if toCol is the end
+     */
+    private LinearWallModel makeColumnWalls(final int fromCol, final int toCol, final boolean checkOverlap) {
+        final int height = maze.getNumRows(), lastCol = maze.getNumCols() - 1;
+        final LinearWallModel walls = new LinearWallModel(maze.getNumCols(), height, favorEwWalls);
+        final ColumnReader columns = new ColumnReader(maze, checkOverlap);
+        final long[] columnWalls = new long[columns.wordsPerColumn], columnBlocked = new long[columnWalls.length];
+        for (int x = fromCol; x < toCol; x++) {
+            columns.readLane(x, false, checkOverlap, columnWalls, columnBlocked);
+            makeWallsForLane(walls, x, height, true, false, columnWalls, checkOverlap ? columnBlocked : null);
+        }
+        if (toCol == lastCol + 1) {
+            columns.readLane(lastCol, true, checkOverlap, columnWalls, columnBlocked);
+            makeWallsForLane(walls, lastCol, height, true, true, columnWalls, checkOverlap ? columnBlocked : null);
+        }
+        return walls;
+    }
+
+    /**
+     * Reads the horizontal walls along one row line of the maze into bitmaps, a word at a time
+     * @param y            row whose north walls to read, or the last row if isFinalWall
+     * @param isFinalWall  true to read the south walls of the last row
+     * @param checkOverlap true to also read which perpendicular (vertical) walls meet the line
+     * @param walls        set to the walls that are present: bit i of word w is the wall of space 64 * w + i
+     * @param blocked      if checkOverlap, set to where a vertical wall meets the line: bit i of word w is set if
+     *                     there's a wall east of space 64 * w + i in the row below the line or (unless isFinalWall)
+     *                     above it
+     */
+    private void readRowLane(final int y, final boolean isFinalWall, final boolean checkOverlap, final long[] walls,
+            final long[] blocked) {
+        for (int w = 0; w < walls.length; w++) {
+            final long open;
+            if (isFinalWall) {
+                open = maze.getSouthOpenWord(y, w);
+            } else {
+                open = y == 0 ? maze.getNorthBorderOpenWord(w) : maze.getSouthOpenWord(y - 1, w);
             }
-            // east wall of final column
-            makeWallsForLane(linearWallModel, lastCol, height, true, EAST, null, true);
-            // make north walls of the rows
-            for (int y = 0; y < height; y++) {
-                makeWallsForLane(linearWallModel, y, width, false, NORTH, EAST, false);
+            walls[w] = ~open & laneMask(maze.getNumCols(), w);
+            if (checkOverlap) {
+                blocked[w] = ~maze.getEastOpenWord(y, w) | (!isFinalWall && y > 0 ? ~maze.getEastOpenWord(y - 1, w) : 0);
             }
-            // south wall of final row
-            makeWallsForLane(linearWallModel, lastRow, width, false, SOUTH, EAST, true);
         }
-        return linearWallModel;
     }
 
     /**
@@ -82,97 +204,243 @@ public class LinearWallModelGenerator {
      * adjacent walls when possible.
      * e.g. a row like ___ __ (3 spaces with walls, 1 empty, 2 more with walls)
      * This would make two walls; one 3 spaces long and the other 2 spaces long
-     * e.g. when an overlapCheckDirection is used: ___|_
-     *                                                |
+     * e.g. when overlaps are checked: ___|_
+     *                                    |
      *     There's a wall 4 spaces long, and a perpendicular wall. If building vertical walls first, this horizontal
      *     wall would be split into 2 separate horizontal walls: one length 3, and one length 1, end-to-end, but separate
      *     so that the perpendicular wall doesn't overlap. If doing horizontal walls first, this would result in one
      *     horizontal wall 4 spaces long and two separate vertical walls.
-     * @param linearWallModel            the model walls are being added to
-     * @param majorTraversalIndex        the index of the lane being traversed
-     * @param minorTraversalMax          number of spaces in the lane
-     * @param xMajor                     true if doing an x-major (column-major) traversal
-     * @param continuationCheckDirection direction to check that the wall continues, e.g. if doing a row-major traversal
-     *                                   (moving east), one should check that there are walls on the north or south sides
-     *                                   of the spaces to see how far they continue
-     * @param overlapCheckDirection      direction to check for perpendicular walls, e.g. if doing a row-major traversal
-     *                                   (moving east), one should check that there are perpendicular walls to the east
-     *                                   which would determine the end of the current wall
-     * @param isFinalWall                true if this is the last row/column being checked, used for determining
-     *                                   coordinates since n rows means n+1 rows of horizontal walls
+     * The lane is scanned 64 spaces at a time: a wall starts at a space that has a wall where the previous space doesn't
+     * or is blocked from it by a perpendicular wall, and ends where the next space doesn't have one or is blocked.
+     * Only the starts and ends are visited, found with {@link Long#numberOfTrailingZeros(long)}.
+     * @param laneWalls           where to add the walls
+     * @param majorTraversalIndex the index of the lane being traversed
+     * @param minorTraversalMax   number of spaces in the lane
+     * @param xMajor              true if doing an x-major (column-major) traversal
+     * @param isFinalWall         true if this is the last row/column being checked, used for determining coordinates
+     *                            since n rows means n+1 rows of horizontal walls
+     * @param walls               bit i is set if space i in the lane has a wall along the lane; bits past
+     *                            minorTraversalMax must be 0
+     * @param blocked             bit i is set if a perpendicular wall meets the lane between spaces i and i + 1, or
+     *                            null to not check for overlaps
      */
-    private void makeWallsForLane(final LinearWallModel linearWallModel, final int majorTraversalIndex,
-            final int minorTraversalMax, final boolean xMajor, final Direction continuationCheckDirection,
-            final Direction overlapCheckDirection, final boolean isFinalWall) {
-        for (int i = 0; i < minorTraversalMax; i++) {
-            final int y = xMajor ? i : majorTraversalIndex;
-            final int x = xMajor ? majorTraversalIndex : i;
-            final Space currentSpace = maze.getGrid()[y][x];
-            if (!currentSpace.isOpen(continuationCheckDirection)) {
-                final OrderedPair<Integer> lengthAndAdditive = calculateWallLength(xMajor, continuationCheckDirection,
-                    overlapCheckDirection, isFinalWall, x, y);
-                final int length = lengthAndAdditive.x, additive = lengthAndAdditive.y;
-                linearWallModel.addWall(createWallHelper(xMajor, isFinalWall, x, y, length));
-                i += length + additive;
+    private void makeWallsForLane(final LinearWallModel laneWalls, final int majorTraversalIndex,
+            final int minorTraversalMax, final boolean xMajor, final boolean isFinalWall, final long[] walls,
+            final long[] blocked) {
+        final int numWords = wordsFor(minorTraversalMax);
+        long prevWallsCarry = 0, prevBlockedCarry = 0;
+        int wallStart = 0;
+        for (int w = 0; w < numWords; w++) {
+            final long here = walls[w], blockedHere = blocked != null ? blocked[w] : 0;
+            final long prevWalls = here << 1 | prevWallsCarry, prevBlocked = blockedHere << 1 | prevBlockedCarry;
+            final long nextWalls = here >>> 1 | (w + 1 < numWords ? walls[w + 1] << (BITS_PER_WORD - 1) : 0);
+            final long starts = here & ~(prevWalls & ~prevBlocked), ends = here & (~nextWalls | blockedHere);
+            long events = starts | ends;
+            while (events != 0) {
+                final int bit = Long.numberOfTrailingZeros(events);
+                final long mask = 1L << bit;
+                events &= events - 1;
+                final int i = w * BITS_PER_WORD + bit;
+                if ((starts & mask) != 0) {
+                    wallStart = i;
+                }
+                if ((ends & mask) != 0) {
+                    addWallHelper(laneWalls, xMajor, isFinalWall, xMajor ? majorTraversalIndex : wallStart,
+                        xMajor ? wallStart : majorTraversalIndex, i - wallStart + 1);
+                }
             }
+            prevWallsCarry = here >>> (BITS_PER_WORD - 1);
+            prevBlockedCarry = blockedHere >>> (BITS_PER_WORD - 1);
         }
     }
 
-    private OrderedPair<Integer> calculateWallLength(final boolean xMajor, final Direction continuationCheckDirection,
-        final Direction overlapCheckDirection, final boolean isFinalWall, final int x, final int y) {
-        int length, additive = 0;
-        for (length = 1; maze.isInBounds(xMajor ? x : x + length, xMajor ? y + length : y); length++) {
-            // wall continuation check
-            final Space nextSpace = findNextSpace(xMajor, x, y, length);
-            if (nextSpace.isOpen(continuationCheckDirection)) {
-                break;
+    private static int wordsFor(final int numBits) {
+        return (numBits + BITS_PER_WORD - 1) / BITS_PER_WORD;
+    }
+
+    /**
+     * @return a mask of the bits in word w that are inside a lane of length laneLength
+     */
+    private static long laneMask(final int laneLength, final int w) {
+        final int bitsInWord = laneLength - w * BITS_PER_WORD;
+        return bitsInWord >= BITS_PER_WORD ? -1L : (1L << bitsInWord) - 1;
+    }
+
+    /**
+     * Iterates over the results of batches in order, while running up to maxInFlight of the upcoming batches in a pool
+     */
+    private static class PrefetchingIterator implements Iterator<LinearWallModel> {
+        private final Iterator<Supplier<LinearWallModel>> batches;
+        private final ForkJoinPool pool;
+        private final int maxInFlight;
+        private final Deque<ForkJoinTask<LinearWallModel>> inFlight = new ArrayDeque<>();
+
+        PrefetchingIterator(final Iterator<Supplier<LinearWallModel>> batches, final ForkJoinPool pool,
+                final int maxInFlight) {
+            this.batches = batches;
+            this.pool = pool;
+            this.maxInFlight = Math.max(1, maxInFlight);
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return !inFlight.isEmpty();
+        }
+
+        @Override
+        public LinearWallModel next() {
+            fill();
+            if (inFlight.isEmpty()) {
+                throw new NoSuchElementException();
             }
-            // wall overlap check
-            if (overlapCheckDirection != null) {
-                final int sameLaneX = findSameLaneX(xMajor, x, length), sameLaneY = findSameLaneY(xMajor, y, length);
-                final int prevLaneX = findPrevLaneX(xMajor, x, length), prevLaneY = findPrevLaneY(xMajor, y, length);
-                final Space spaceInSameLane = maze.getGrid()[sameLaneY][sameLaneX];
-                final Space spaceInPrevLane = findSpaceInPrevLane(prevLaneX, prevLaneY);
-                // 1st condition: check for perpendicular wall in same lane; 2nd: check for perpendicular wall
-                // in prev lane, but not for final row because we don't care about prev lane when doing the outer
-                // check
-                if (!spaceInSameLane.isOpen(overlapCheckDirection) ||
-                    (!isFinalWall && spaceInPrevLane != null && !spaceInPrevLane.isOpen(overlapCheckDirection))) {
-                    // i += length puts i just past the wall that's blocked by a perpendicular one; -1 is needed
-                    // so that the next loop iter still checks that space after i++ happens
-                    additive = -1;
-                    break;
-                }
+            return inFlight.poll().join();
+        }
+
+        private void fill() {
+            while (inFlight.size() < maxInFlight && batches.hasNext()) {
+                final ForkJoinTask<LinearWallModel> task = ForkJoinTask.adapt(batches.next()::get);
+                pool.execute(task);
+                inFlight.add(task);
             }
         }
-        return new OrderedPair<>(length, additive);
     }
 
-    private Space findNextSpace(final boolean xMajor, final int x, final int y, final int length) {
-        return maze.getGrid()[xMajor ? y + length : y][xMajor ? x : x + length];
-    }
+    /**
+     * Reads the vertical walls along the column lines of a maze into bitmaps. The maze stores walls by row, so columns
+     * are read 64 at a time by transposing 64x64 blocks of the east (and south) wall words. Only the current group of 64
+     * columns and the last column of the previous group are kept, so lanes should be read in increasing order.
+     */
+    private static class ColumnReader {
+        private final Maze maze;
+        private final boolean readSouth;
+        private final int wordsPerColumn;
+        private final long[] block = new long[BITS_PER_WORD];
+        private int group = -1;
+        private long[][] eastColumns;
+        private long[][] southColumns;
+        private long[] prevGroupEastColumn;
+        private long[] prevGroupSouthColumn;
 
-    private int findSameLaneX(final boolean xMajor, final int x, final int length) {
-        return xMajor ? x : x + length - 1;
-    }
+        /**
+         * @param readSouth whether south walls are needed, i.e. whether overlaps will be checked
+         */
+        ColumnReader(final Maze maze, final boolean readSouth) {
+            this.maze = maze;
+            this.readSouth = readSouth;
+            wordsPerColumn = wordsFor(maze.getNumRows());
+        }
 
-    private int findSameLaneY(final boolean xMajor, final int y, final int length) {
-        return xMajor ? y + length - 1 : y;
-    }
+        /**
+         * @see LinearWallModelGenerator#readRowLane(int, boolean, boolean, long[], long[]), but for the west walls of
+         * column x, or the east walls of the last column if isFinalWall. Blocked bits mark south walls in the column
+         * right of the line or (unless isFinalWall) left of it.
+         */
+        void readLane(final int x, final boolean isFinalWall, final boolean checkOverlap, final long[] walls,
+                final long[] blocked) {
+            loadGroup(x / BITS_PER_WORD);
+            final long[] sameLaneSouth = checkOverlap ? southColumn(x) : null,
+                prevLaneSouth = checkOverlap ? southColumnLeftOf(x, isFinalWall) : null;
+            final long[] prevEast = eastColumnLeftOf(x, isFinalWall);
+            for (int w = 0; w < wordsPerColumn; w++) {
+                final long open = prevEast != null ? prevEast[w] : maze.getWestBorderOpenWord(w);
+                walls[w] = ~open & laneMask(maze.getNumRows(), w);
+                if (checkOverlap) {
+                    blocked[w] = ~sameLaneSouth[w] | (prevLaneSouth != null ? ~prevLaneSouth[w] : 0);
+                }
+            }
+        }
 
-    private int findPrevLaneX(final boolean xMajor, final int x, final int length) {
-        return xMajor ? x - 1 : x + length - 1;
-    }
+        /**
+         * @return the east walls of the column left of the line, or null if the line is the west border
+         */
+        private long[] eastColumnLeftOf(final int x, final boolean isFinalWall) {
+            return isFinalWall ? eastColumn(x) : x > 0 ? eastColumn(x - 1) : null;
+        }
 
-    private int findPrevLaneY(final boolean xMajor, final int y, final int length) {
-        return xMajor ? y + length - 1 : y - 1;
-    }
+        /**
+         * @return the south walls of the column left of the line, or null if there is none to check
+         */
+        private long[] southColumnLeftOf(final int x, final boolean isFinalWall) {
+            return !isFinalWall && x > 0 ? southColumn(x - 1) : null;
+        }
 
-    private Space findSpaceInPrevLane(final int prevLaneX, final int prevLaneY) {
-        return maze.isInBounds(prevLaneX, prevLaneY) ? maze.getGrid()[prevLaneY][prevLaneX] : null;
+        private long[] eastColumn(final int x) {
+            return x / BITS_PER_WORD == group ? eastColumns[x % BITS_PER_WORD] : prevGroupEastColumn;
+        }
+
+        private long[] southColumn(final int x) {
+            return x / BITS_PER_WORD == group ? southColumns[x % BITS_PER_WORD] : prevGroupSouthColumn;
+        }
+
+        private void loadGroup(final int newGroup) {
+            if (newGroup == group) {
+                return;
+            }
+            if (group != -1 && newGroup == group + 1) {
+                prevGroupEastColumn = eastColumns[BITS_PER_WORD - 1];
+                prevGroupSouthColumn = readSouth ? southColumns[BITS_PER_WORD - 1] : null;
+            } else if (newGroup > 0) {
+                prevGroupEastColumn = readLastColumn(newGroup - 1, false);
+                prevGroupSouthColumn = readSouth ? readLastColumn(newGroup - 1, true) : null;
+            }
+            group = newGroup;
+            eastColumns = readGroup(false);
+            southColumns = readSouth ? readGroup(true) : null;
+        }
+
+        /**
+         * reads only the last column of a group, for when the reader starts partway through the maze
+         */
+        private long[] readLastColumn(final int lastGroup, final boolean south) {
+            final long[] column = new long[wordsPerColumn];
+            for (int y = 0; y < maze.getNumRows(); y++) {
+                final long word = south ? maze.getSouthOpenWord(y, lastGroup) : maze.getEastOpenWord(y, lastGroup);
+                column[y / BITS_PER_WORD] |= (word >>> BITS_PER_WORD - 1) << y;
+            }
+            return column;
+        }
+
+        /**
+         * @return columns[c][w] is bit-for-bit the open walls of rows 64 * w through 64 * w + 63 in column
+         * 64 * group + c
+         */
+        private long[][] readGroup(final boolean south) {
+            final long[][] columns = new long[BITS_PER_WORD][wordsPerColumn];
+            for (int w = 0; w < wordsPerColumn; w++) {
+                for (int i = 0; i < BITS_PER_WORD; i++) {
+                    final int y = w * BITS_PER_WORD + i;
+                    if (y < maze.getNumRows()) {
+                        block[i] = south ? maze.getSouthOpenWord(y, group) : maze.getEastOpenWord(y, group);
+                    } else {
+                        block[i] = 0;
+                    }
+                }
+                transpose(block);
+                for (int c = 0; c < BITS_PER_WORD; c++) {
+                    columns[c][w] = block[c];
+                }
+            }
+            return columns;
+        }
+
+        /**
+         * transposes a 64x64 bit matrix in place, so that bit j of word i becomes bit i of word j, by swapping
+         * off-diagonal blocks of halving sizes
+         */
+        private static void transpose(final long[] matrix) {
+            long mask = LOW_HALF_MASK;
+            for (int j = BITS_PER_WORD / 2; j != 0; j >>= 1, mask ^= mask << j) {
+                for (int k = 0; k < BITS_PER_WORD; k = (k | j) + 1 & ~j) {
+                    final long swap = (matrix[k] >>> j ^ matrix[k | j]) & mask;
+                    matrix[k] ^= swap << j;
+                    matrix[k | j] ^= swap;
+                }
+            }
+        }
     }
 
-    private LinearWallModel.Wall createWallHelper(final boolean xMajor, final boolean isFinalWall,
+    private void addWallHelper(final LinearWallModel linearWallModel, final boolean xMajor, final boolean isFinalWall,
             final int x, final int y, final int length) {
         final int startX, startY, endX, endY;
         if (xMajor) {
@@ -196,7 +464,6 @@ public class LinearWallModelGenerator {
                 endY = y;
             }
         }
-        final OrderedPair<Integer> start = new OrderedPair<>(startX, startY), end = new OrderedPair<>(endX, endY);
-        return new LinearWallModel.Wall(start, end);
+        linearWallModel.addWall(startX, startY, endX, endY);
     }
 }
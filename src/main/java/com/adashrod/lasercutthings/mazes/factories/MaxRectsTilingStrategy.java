@@ -0,0 +1,163 @@
+package com.adashrod.lasercutthings.mazes.factories;
+
+import com.adashrod.lasercutthings.mazes.models.Shape;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Packs parts with the MaxRects algorithm: each sheet keeps a list of the largest empty rectangles that are left in it,
+ * which can overlap each other. A part goes in the top left corner of the empty rectangle where its bottom edge is
+ * highest (and then furthest left), and then every empty rectangle that the part overlaps is split into the pieces
+ * around it. This fills gaps anywhere on the sheet, at the cost of time that grows with the square of the number of
+ * empty rectangles.
+ * Choosing the rectangle by where the part ends up, rather than by how snugly it fits, keeps the empty space in a few
+ * large pieces; with walls, which are long and thin, the snuggest fit splits it into many slivers that nothing else
+ * fits in.
+ * @author adashrod@gmail.com
+ */
+public class MaxRectsTilingStrategy extends RectanglePackingStrategy {
+    public MaxRectsTilingStrategy() {
+        this(true);
+    }
+
+    /**
+     * @param allowRotation whether walls may be turned 90 degrees to fit better
+     */
+    public MaxRectsTilingStrategy(final boolean allowRotation) {
+        this(allowRotation, LONGEST_FIRST);
+    }
+
+    /**
+     * @param allowRotation whether walls may be turned 90 degrees to fit better
+     * @param wallOrder     the order to pack the walls in, or null to pack them in the order of
+     *                      {@link com.adashrod.lasercutthings.mazes.models.SheetWallModel#walls}; defaults to longest
+     *                      first
+     */
+    public MaxRectsTilingStrategy(final boolean allowRotation, final Comparator<Shape> wallOrder) {
+        super(allowRotation, wallOrder);
+    }
+
+    @Override
+    Bin createBin(final long width, final long height) {
+        return new MaxRectsBin(width, height);
+    }
+
+    private static final class MaxRectsBin implements Bin {
+        private List<Rectangle> freeRectangles = new ArrayList<>();
+
+        private MaxRectsBin(final long width, final long height) {
+            freeRectangles.add(new Rectangle(0, 0, width, height));
+        }
+
+        @Override
+        public Placement insert(final long width, final long height, final boolean canRotate) {
+            Fit best = null;
+            for (int i = 0; i < freeRectangles.size(); i++) {
+                best = tryFit(i, width, height, false, best);
+                if (canRotate) {
+                    best = tryFit(i, height, width, true, best);
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            final Rectangle used = new Rectangle(best.x, best.y, best.rotated ? height : width,
+                best.rotated ? width : height);
+            splitFreeRectangles(used);
+            removeContainedRectangles();
+            return new Placement(used.x, used.y, best.rotated);
+        }
+
+        /**
+         * @return the fit of a box in the top left corner of empty rectangle index if it's there and better than best,
+         * otherwise best
+         */
+        private Fit tryFit(final int index, final long boxWidth, final long boxHeight, final boolean rotated,
+                final Fit best) {
+            final Rectangle free = freeRectangles.get(index);
+            if (boxWidth > free.width || boxHeight > free.height) {
+                return best;
+            }
+            final Fit fit = new Fit(free.x, free.y, free.y + boxHeight, rotated, index);
+            return fit.isBetterThan(best) ? fit : best;
+        }
+
+        /**
+         * replaces each empty rectangle that overlaps used with the (up to) four largest rectangles around used
+         */
+        private void splitFreeRectangles(final Rectangle used) {
+            final List<Rectangle> split = new ArrayList<>(freeRectangles.size() + 4);
+            for (final Rectangle free: freeRectangles) {
+                if (!free.overlaps(used)) {
+                    split.add(free);
+                    continue;
+                }
+                if (used.x > free.x) {
+                    split.add(new Rectangle(free.x, free.y, used.x - free.x, free.height));
+                }
+                if (used.getMaxX() < free.getMaxX()) {
+                    split.add(new Rectangle(used.getMaxX(), free.y, free.getMaxX() - used.getMaxX(), free.height));
+                }
+                if (used.y > free.y) {
+                    split.add(new Rectangle(free.x, free.y, free.width, used.y - free.y));
+                }
+                if (used.getMaxY() < free.getMaxY()) {
+                    split.add(new Rectangle(free.x, used.getMaxY(), free.width, free.getMaxY() - used.getMaxY()));
+                }
+            }
+            freeRectangles = split;
+        }
+
+        private void removeContainedRectangles() {
+            final boolean[] isContained = new boolean[freeRectangles.size()];
+            for (int i = 0; i < freeRectangles.size(); i++) {
+                for (int j = i + 1; j < freeRectangles.size() && !isContained[i]; j++) {
+                    if (isContained[j]) {
+                        continue;
+                    }
+                    if (freeRectangles.get(j).contains(freeRectangles.get(i))) {
+                        isContained[i] = true;
+                    } else if (freeRectangles.get(i).contains(freeRectangles.get(j))) {
+                        isContained[j] = true;
+                    }
+                }
+            }
+            final List<Rectangle> kept = new ArrayList<>(freeRectangles.size());
+            for (int i = 0; i < freeRectangles.size(); i++) {
+                if (!isContained[i]) {
+                    kept.add(freeRectangles.get(i));
+                }
+            }
+            freeRectangles = kept;
+        }
+    }
+
+    private static final class Rectangle {
+        private final long x, y, width, height;
+
+        private Rectangle(final long x, final long y, final long width, final long height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        private long getMaxX() {
+            return x + width;
+        }
+
+        private long getMaxY() {
+            return y + height;
+        }
+
+        private boolean overlaps(final Rectangle other) {
+            return x < other.getMaxX() && other.x < getMaxX() && y < other.getMaxY() && other.y < getMaxY();
+        }
+
+        private boolean contains(final Rectangle other) {
+            return x <= other.x && y <= other.y && getMaxX() >= other.getMaxX() && getMaxY() >= other.getMaxY();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.adashrod.lasercutthings.mazes.factories;
+
+import com.adashrod.lasercutthings.common.FixedPoint;
+import com.adashrod.lasercutthings.mazes.models.Path;
+import com.adashrod.lasercutthings.mazes.models.Shape;
+import com.adashrod.lasercutthings.mazes.models.SheetWallModel;
+import com.adashrod.lasercutthings.mazes.models.VectorNumber;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tries a portfolio of layouts at the same time and keeps the best one that's done within a time budget. The portfolio
+ * is {@link TilingStrategy#COLUMNS}, then {@link SkylineTilingStrategy} and {@link MaxRectsTilingStrategy} with and
+ * without rotation, then a number of restarts of the two packers with the walls in a random order that's close to
+ * longest first. A layout is better if fewer parts are off their sheets, then if it uses fewer sheets, then if the
+ * parts on its last sheet are less tall, then less wide; ties go to the layout that's earlier in the portfolio.
+ * Counting the parts that are off, rather than only whether any are, matters when a part is too big for any sheet:
+ * every layout is out of bounds then, and the one that leaves the fewest other parts off the sheets should win.
+ * The columns layout is done first, on the calling thread, so the result is never worse than that whatever the budget.
+ * The rest are run by one task per thread of the pool, which each take the next layout in the portfolio until there
+ * are none left or the time is up. Each layout is made from copies of the bounding boxes of the parts, which are then
+ * offered to a holder that swaps in a layout only if it's better, with a compare-and-set and no locks. When every task
+ * is done, or at the end of the budget, the best layout so far is applied to the parts. A layout that's still being
+ * made then is finished and thrown away.
+ * Which layouts are done in time depends on how busy the pool is, so the result for the same parts can differ between
+ * calls unless the budget is enough for the whole portfolio.
+ * A strategy should be set up before it's shared, since the setters aren't thread-safe.
+ * @author adashrod@gmail.com
+ */
+public class PortfolioTilingStrategy implements TilingStrategy {
+    private static final List<TilingStrategy> FIXED_PORTFOLIO = Collections.unmodifiableList(Arrays.asList(
+        TilingStrategy.COLUMNS,
+        new SkylineTilingStrategy(true),
+        new MaxRectsTilingStrategy(true),
+        new SkylineTilingStrategy(false),
+        new MaxRectsTilingStrategy(false)
+    ));
+    private static final List<TilingStrategy> RESTART_STRATEGIES = Collections.unmodifiableList(Arrays.asList(
+        new SkylineTilingStrategy(true, null),
+        new MaxRectsTilingStrategy(true, null)
+    ));
+    /**
+     * in a restart, the length that each wall is sorted by is multiplied by a random factor between 1 - this and 1
+     */
+    private static final double ORDER_NOISE = 0.5;
+
+    private final long timeBudgetNanos;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int numRestarts = 32;
+    private long seed;
+
+    /**
+     * @param timeBudget how long {@link PortfolioTilingStrategy#tile} can take, not counting the columns layout and
+     *                   applying the result, which are both fast
+     */
+    public PortfolioTilingStrategy(final long timeBudget, final TimeUnit unit) {
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException("timeBudget must be non-negative");
+        }
+        timeBudgetNanos = unit.toNanos(timeBudget);
+    }
+
+    public PortfolioTilingStrategy setPool(final ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * @param numRestarts number of layouts in random orders after the fixed ones; defaults to 32
+     * @return this
+     */
+    public PortfolioTilingStrategy setNumRestarts(final int numRestarts) {
+        if (numRestarts < 0) {
+            throw new IllegalArgumentException("numRestarts must be non-negative");
+        }
+        this.numRestarts = numRestarts;
+        return this;
+    }
+
+    /**
+     * @param seed the orders of the restarts are made from seed, seed + 1, ...
+     * @return this
+     */
+    public PortfolioTilingStrategy setSeed(final long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    @Override
+    public void tile(final SheetWallModel sheetWallModel, final long separationSpace, final long maxWidth,
+            final long maxHeight, final long wallHeight, final boolean multipleSheets) {
+        final Parts parts = new Parts(sheetWallModel);
+        final int numLayouts = FIXED_PORTFOLIO.size() + numRestarts;
+        final AtomicReference<Layout> best = new AtomicReference<>(
+            makeLayout(parts, 0, separationSpace, maxWidth, maxHeight, wallHeight, multipleSheets));
+        // the budget starts after the columns layout, which isn't counted in it
+        final long deadline = System.nanoTime() + timeBudgetNanos;
+        final AtomicInteger nextIndex = new AtomicInteger(1);
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < Math.min(pool.getParallelism(), numLayouts - 1); i++) {
+            tasks.add(pool.submit(() -> {
+                int index;
+                while (System.nanoTime() < deadline && (index = nextIndex.getAndIncrement()) < numLayouts) {
+                    final Layout layout = makeLayout(parts, index, separationSpace, maxWidth, maxHeight, wallHeight,
+                        multipleSheets);
+                    best.accumulateAndGet(layout, (final Layout current, final Layout offered) ->
+                        offered.isBetterThan(current) ? offered : current);
+                }
+            }));
+        }
+        for (final ForkJoinTask<?> task: tasks) {
+            try {
+                task.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (final TimeoutException e) {
+                break;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (final ExecutionException e) {
+                throw new IllegalStateException("a layout in the portfolio failed", e.getCause());
+            }
+        }
+        best.get().apply(sheetWallModel);
+    }
+
+    /**
+     * tiles a copy of the bounding boxes of the parts with the strategy at index in the portfolio
+     */
+    private Layout makeLayout(final Parts parts, final int index, final long separationSpace, final long maxWidth,
+            final long maxHeight, final long wallHeight, final boolean multipleSheets) {
+        final SheetWallModel boxes = parts.toBoxes();
+        final Map<Shape, Integer> wallIndices = new HashMap<>();
+        for (int i = 0; i < boxes.walls.size(); i++) {
+            wallIndices.put(boxes.walls.get(i), i);
+        }
+        final TilingStrategy strategy;
+        if (index < FIXED_PORTFOLIO.size()) {
+            strategy = FIXED_PORTFOLIO.get(index);
+        } else {
+            final int restart = index - FIXED_PORTFOLIO.size();
+            final Random random = new Random(seed + restart);
+            final Map<Shape, Double> sortLengths = new HashMap<>();
+            boxes.walls.forEach((final Shape wall) ->
+                sortLengths.put(wall, wall.findWidth() * (1 - ORDER_NOISE * random.nextDouble())));
+            boxes.walls.sort((final Shape a, final Shape b) -> Double.compare(sortLengths.get(b), sortLengths.get(a)));
+            strategy = RESTART_STRATEGIES.get(restart % RESTART_STRATEGIES.size());
+        }
+        strategy.tile(boxes, separationSpace, maxWidth, maxHeight, wallHeight, multipleSheets);
+        return new Layout(boxes, wallIndices, index, maxWidth, maxHeight);
+    }
+
+    /**
+     * The bounding boxes of the parts and the labels of the walls, which are read once, before any tasks are started,
+     * so that the tasks don't read the model while it's being changed
+     */
+    private static final class Parts {
+        private final long[] floorBox;
+        private final long[][] wallBoxes;
+        private final int[] labelNumbers;
+        private final long[][] labelBoxes;
+
+        private Parts(final SheetWallModel sheetWallModel) {
+            floorBox = findBox(sheetWallModel.floorOutline);
+            final int numWalls = sheetWallModel.walls.size();
+            wallBoxes = new long[numWalls][];
+            labelNumbers = new int[numWalls];
+            labelBoxes = new long[numWalls][];
+            for (int i = 0; i < numWalls; i++) {
+                final Shape wall = sheetWallModel.walls.get(i);
+                final VectorNumber label = sheetWallModel.wallLabels.get(wall);
+                wallBoxes[i] = findBox(wall);
+                labelNumbers[i] = label.number;
+                labelBoxes[i] = new long[] {label.position.x, label.position.y, label.width, label.height};
+            }
+        }
+
+        private static long[] findBox(final Shape shape) {
+            return new long[] {shape.findMinX(), shape.findMinY(), shape.findMaxX(), shape.findMaxY()};
+        }
+
+        /**
+         * @return a model with a rectangle in place of each part, and a label of the same size for each wall
+         */
+        private SheetWallModel toBoxes() {
+            final SheetWallModel boxes = new SheetWallModel();
+            boxes.floorOutline.addPath(toRectangle(floorBox));
+            for (int i = 0; i < wallBoxes.length; i++) {
+                final Shape wall = new Shape(toRectangle(wallBoxes[i]));
+                boxes.addShape(wall);
+                boxes.wallLabels.put(wall, new VectorNumber(labelNumbers[i], labelBoxes[i][2], labelBoxes[i][3],
+                    new FixedPoint(labelBoxes[i][0], labelBoxes[i][1])));
+            }
+            return boxes;
+        }
+
+        private static Path toRectangle(final long[] box) {
+            return new Path(new FixedPoint(box[0], box[1]), new FixedPoint(box[2], box[3]));
+        }
+    }
+
+    /**
+     * where each part goes in one layout; it's immutable, so that it can be shared between threads
+     */
+    private static final class Layout {
+        private final int index;
+        private final boolean outOfBounds;
+        private final int numOffSheet;
+        private final int numSheets;
+        private final long lastSheetMaxX;
+        private final long lastSheetMaxY;
+        private final long floorX;
+        private final long floorY;
+        // in the order that the walls are printed
+        private final int[] wallIndices;
+        private final long[] wallXs;
+        private final long[] wallYs;
+        private final int[] wallSheets;
+        private final boolean[] wallsRotated;
+        private final long[] labelXs;
+        private final long[] labelYs;
+
+        /**
+         * The layout is out of bounds if any box is past the edge of its sheet, even if the strategy didn't say so,
+         * since {@link TilingStrategy#COLUMNS} doesn't check the bottom edge when there's only one sheet. Every box
+         * that's past an edge is counted.
+         * @param wallIndices the index in the model of each wall of boxes
+         */
+        private Layout(final SheetWallModel boxes, final Map<Shape, Integer> wallIndices, final int index,
+                final long maxWidth, final long maxHeight) {
+            this.index = index;
+            numSheets = boxes.numSheets;
+            floorX = boxes.floorOutline.findMinX();
+            floorY = boxes.floorOutline.findMinY();
+            final int numWalls = boxes.walls.size();
+            this.wallIndices = new int[numWalls];
+            wallXs = new long[numWalls];
+            wallYs = new long[numWalls];
+            wallSheets = new int[numWalls];
+            wallsRotated = new boolean[numWalls];
+            labelXs = new long[numWalls];
+            labelYs = new long[numWalls];
+            int offSheet = isOutOfBounds(boxes.floorOutline, maxWidth, maxHeight) ? 1 : 0;
+            long maxX = numSheets == 1 ? boxes.floorOutline.findMaxX() : 0,
+                maxY = numSheets == 1 ? boxes.floorOutline.findMaxY() : 0;
+            for (int i = 0; i < numWalls; i++) {
+                final Shape wall = boxes.walls.get(i);
+                final VectorNumber label = boxes.wallLabels.get(wall);
+                this.wallIndices[i] = wallIndices.get(wall);
+                wallXs[i] = wall.findMinX();
+                wallYs[i] = wall.findMinY();
+                wallSheets[i] = boxes.wallSheets.get(wall);
+                wallsRotated[i] = boxes.rotatedWalls.contains(wall);
+                labelXs[i] = label.position.x;
+                labelYs[i] = label.position.y;
+                if (isOutOfBounds(wall, maxWidth, maxHeight)) {
+                    offSheet++;
+                }
+                if (wallSheets[i] == numSheets - 1) {
+                    maxX = Math.max(maxX, wall.findMaxX());
+                    maxY = Math.max(maxY, wall.findMaxY());
+                }
+            }
+            numOffSheet = offSheet;
+            outOfBounds = boxes.outOfBounds || offSheet > 0;
+            lastSheetMaxX = maxX;
+            lastSheetMaxY = maxY;
+        }
+
+        private static boolean isOutOfBounds(final Shape part, final long maxWidth, final long maxHeight) {
+            return part.findMinX() < 0 || part.findMinY() < 0 || part.findMaxX() > maxWidth ||
+                part.findMaxY() > maxHeight;
+        }
+
+        private boolean isBetterThan(final Layout other) {
+            if (numOffSheet != other.numOffSheet) {
+                return numOffSheet < other.numOffSheet;
+            }
+            if (outOfBounds != other.outOfBounds) {
+                return !outOfBounds;
+            }
+            if (numSheets != other.numSheets) {
+                return numSheets < other.numSheets;
+            }
+            if (lastSheetMaxY != other.lastSheetMaxY) {
+                return lastSheetMaxY < other.lastSheetMaxY;
+            }
+            if (lastSheetMaxX != other.lastSheetMaxX) {
+                return lastSheetMaxX < other.lastSheetMaxX;
+            }
+            return index < other.index;
+        }
+
+        /**
+         * moves the parts of sheetWallModel to where they are in this layout
+         */
+        private void apply(final SheetWallModel sheetWallModel) {
+            final FixedPoint floorDelta = new FixedPoint(floorX - sheetWallModel.floorOutline.findMinX(),
+                floorY - sheetWallModel.floorOutline.findMinY());
+            sheetWallModel.floorOutline.translate(floorDelta);
+            sheetWallModel.floorNotches.translate(floorDelta);
+            sheetWallModel.floorNumbers.forEach((final VectorNumber floorNumber) -> floorNumber.translate(floorDelta));
+
+            final List<Shape> walls = new ArrayList<>(sheetWallModel.walls);
+            sheetWallModel.walls.clear();
+            for (int i = 0; i < wallIndices.length; i++) {
+                final Shape wall = walls.get(wallIndices[i]);
+                if (wallsRotated[i]) {
+                    wall.rotateQuarterTurn();
+                    sheetWallModel.rotatedWalls.add(wall);
+                }
+                wall.translate(new FixedPoint(wallXs[i] - wall.findMinX(), wallYs[i] - wall.findMinY()));
+                final VectorNumber label = sheetWallModel.wallLabels.get(wall);
+                label.translate(new FixedPoint(labelXs[i] - label.position.x, labelYs[i] - label.position.y));
+                sheetWallModel.walls.add(wall);
+                sheetWallModel.wallSheets.put(wall, wallSheets[i]);
+            }
+            sheetWallModel.numSheets = numSheets;
+            sheetWallModel.outOfBounds = outOfBounds;
+        }
+    }
+}
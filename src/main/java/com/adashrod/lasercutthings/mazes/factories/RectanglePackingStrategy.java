@@ -0,0 +1,197 @@
+package com.adashrod.lasercutthings.mazes.factories;
+
+import com.adashrod.lasercutthings.common.Fixed;
+import com.adashrod.lasercutthings.common.FixedPoint;
+import com.adashrod.lasercutthings.mazes.models.Shape;
+import com.adashrod.lasercutthings.mazes.models.SheetWallModel;
+import com.adashrod.lasercutthings.mazes.models.VectorNumber;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Base of the {@link TilingStrategy}s that treat each part as its bounding box and pack the boxes into bins, one bin
+ * per sheet. The floor goes first and is never rotated. The walls follow, longest first unless another order is given,
+ * and each one goes in the first sheet that it fits in, turned 90 degrees if the bin says that fits better. Boxes are
+ * grown by the separation space on their right and bottom, and so are the bins, so a part can touch the far edges of
+ * its sheet.
+ * A part that doesn't fit on an empty sheet gets a sheet to itself, and the model is out of bounds. With only one
+ * sheet, the bins that would have been more sheets are laid out to the right of the first one, and the model is out of
+ * bounds if there's more than one.
+ * @author adashrod@gmail.com
+ */
+abstract class RectanglePackingStrategy implements TilingStrategy {
+    static final Comparator<Shape> LONGEST_FIRST = Comparator.comparingLong(Shape::findWidth).reversed();
+
+    private final boolean allowRotation;
+    // null to keep the order of SheetWallModel.walls
+    private final Comparator<Shape> wallOrder;
+
+    RectanglePackingStrategy(final boolean allowRotation, final Comparator<Shape> wallOrder) {
+        this.allowRotation = allowRotation;
+        this.wallOrder = wallOrder;
+    }
+
+    /**
+     * Creates an empty bin. Bins are only used by the call to {@link TilingStrategy#tile} that creates them.
+     */
+    abstract Bin createBin(long width, long height);
+
+    /**
+     * a sheet that boxes are packed into one at a time
+     */
+    interface Bin {
+        /**
+         * @param canRotate whether the box may be turned 90 degrees, which swaps its width and height
+         * @return where the top left corner of the box goes and whether it was turned, or null if it doesn't fit
+         */
+        Placement insert(long width, long height, boolean canRotate);
+    }
+
+    static final class Placement {
+        final long x, y;
+        final boolean rotated;
+        /**
+         * index of the bin, which is set by {@link RectanglePackingStrategy}
+         */
+        int bin;
+
+        Placement(final long x, final long y, final boolean rotated) {
+            this.x = x;
+            this.y = y;
+            this.rotated = rotated;
+        }
+    }
+
+    /**
+     * a place in a bin that a box could go, which bins compare by how high the bottom of the box would be and then by
+     * how far left it would be
+     */
+    static final class Fit {
+        final long x, y, bottom;
+        final boolean rotated;
+        /**
+         * index of the bin's free space that the box would go in
+         */
+        final int index;
+
+        Fit(final long x, final long y, final long bottom, final boolean rotated, final int index) {
+            this.x = x;
+            this.y = y;
+            this.bottom = bottom;
+            this.rotated = rotated;
+            this.index = index;
+        }
+
+        /**
+         * @param other the best fit so far, or null if there isn't one
+         * @return true if the bottom of the box is higher than in other, or just as high and further left
+         */
+        boolean isBetterThan(final Fit other) {
+            return other == null || bottom < other.bottom || bottom == other.bottom && x < other.x;
+        }
+    }
+
+    @Override
+    public void tile(final SheetWallModel sheetWallModel, final long separationSpace, final long maxWidth,
+            final long maxHeight, final long wallHeight, final boolean multipleSheets) {
+        final Bins bins = new Bins(maxWidth + separationSpace, maxHeight + separationSpace);
+
+        final Placement floorPlacement = bins.insert(sheetWallModel.floorOutline.findWidth() + separationSpace,
+            sheetWallModel.floorOutline.findHeight() + separationSpace, false);
+        final FixedPoint floorDelta = new FixedPoint(floorPlacement.x + (multipleSheets ? 0 :
+            bins.offsets.get(floorPlacement.bin)), floorPlacement.y);
+        sheetWallModel.floorOutline.translate(floorDelta);
+        sheetWallModel.floorNotches.translate(floorDelta);
+        sheetWallModel.floorNumbers.forEach((final VectorNumber floorNumber) -> floorNumber.translate(floorDelta));
+
+        final List<Shape> sortedWalls = new ArrayList<>(sheetWallModel.walls);
+        sheetWallModel.walls.clear();
+        if (wallOrder != null) {
+            sortedWalls.sort(wallOrder);
+        }
+        for (final Shape wall: sortedWalls) {
+            final Placement placement = bins.insert(wall.findWidth() + separationSpace,
+                wall.findHeight() + separationSpace, allowRotation);
+            placeWall(sheetWallModel, wall, placement, multipleSheets ? 0 : bins.offsets.get(placement.bin),
+                wallHeight);
+            sheetWallModel.wallSheets.put(wall, multipleSheets ? placement.bin : 0);
+        }
+
+        sheetWallModel.numSheets = multipleSheets ? bins.bins.size() : 1;
+        if (bins.bins.contains(null) || !multipleSheets && bins.bins.size() > 1) {
+            sheetWallModel.outOfBounds = true;
+        }
+    }
+
+    /**
+     * the bins used by one call to {@link RectanglePackingStrategy#tile}
+     */
+    private final class Bins {
+        private final long binWidth;
+        private final long binHeight;
+        // null for a bin that's taken up by a part that's too big for it
+        private final List<Bin> bins = new ArrayList<>();
+        // x coordinate of each bin when they're side by side, which is where they go when there's only one sheet
+        private final List<Long> offsets = new ArrayList<>();
+        private long nextOffset;
+
+        private Bins(final long binWidth, final long binHeight) {
+            this.binWidth = binWidth;
+            this.binHeight = binHeight;
+        }
+
+        /**
+         * puts a box in the first bin that it fits in, or in a new bin
+         */
+        private Placement insert(final long width, final long height, final boolean canRotate) {
+            for (int i = 0; i < bins.size(); i++) {
+                final Placement placement = bins.get(i) != null ? bins.get(i).insert(width, height, canRotate) : null;
+                if (placement != null) {
+                    placement.bin = i;
+                    return placement;
+                }
+            }
+            final Bin bin = createBin(binWidth, binHeight);
+            Placement placement = bin.insert(width, height, canRotate);
+            offsets.add(nextOffset);
+            if (placement != null) {
+                bins.add(bin);
+                nextOffset += binWidth;
+            } else {
+                bins.add(null);
+                placement = new Placement(0, 0, false);
+                nextOffset += Math.max(binWidth, width);
+            }
+            placement.bin = bins.size() - 1;
+            return placement;
+        }
+    }
+
+    /**
+     * Moves a wall from (0, 0) to its place, turning it first if needed, and centers its label on the part of the wall
+     * that's above the tabs
+     */
+    private static void placeWall(final SheetWallModel sheetWallModel, final Shape wall, final Placement placement,
+            final long offsetX, final long wallHeight) {
+        final long width = wall.findWidth(), height = wall.findHeight();
+        final long x = placement.x + offsetX, y = placement.y;
+        final long labelCenterX, labelCenterY;
+        if (placement.rotated) {
+            wall.rotateQuarterTurn();
+            sheetWallModel.rotatedWalls.add(wall);
+            // the top of the wall is now its right side
+            labelCenterX = x + height - Fixed.half(wallHeight);
+            labelCenterY = y + Fixed.half(width);
+        } else {
+            labelCenterX = x + Fixed.half(width);
+            labelCenterY = y + Fixed.half(wallHeight);
+        }
+        wall.translate(new FixedPoint(x, y));
+        final VectorNumber wallLabel = sheetWallModel.wallLabels.get(wall);
+        wallLabel.translate(new FixedPoint(labelCenterX - Fixed.half(wallLabel.width),
+            labelCenterY - Fixed.half(wallLabel.height)));
+        sheetWallModel.walls.add(wall);
+    }
+}
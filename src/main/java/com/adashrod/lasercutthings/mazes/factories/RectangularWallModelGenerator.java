@@ -1,12 +1,11 @@
 package com.adashrod.lasercutthings.mazes.factories;
 
-import com.adashrod.lasercutthings.common.OrderedPair;
 import com.adashrod.lasercutthings.mazes.Direction;
 import com.adashrod.lasercutthings.mazes.models.LinearWallModel;
 import com.adashrod.lasercutthings.mazes.models.RectangularWallModel;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
+import java.util.stream.Stream;
 
 import static com.adashrod.lasercutthings.mazes.Direction.EAST;
 import static com.adashrod.lasercutthings.mazes.Direction.NORTH;
@@ -16,78 +15,131 @@ import static com.adashrod.lasercutthings.mazes.Direction.determineDirection;
 
 /**
  * An instance of RectangularWallModelGenerator can be used to create a {@link RectangularWallModel} from
- * a {@link LinearWallModel}
+ * a {@link LinearWallModel}.
+ * Walls in the second direction are trimmed where their ends touch walls that were already placed. Those ends are
+ * always on the corners of the maze's grid, so only the corners are tracked, one bit each, rather than every space of
+ * the rectangular grid.
  * @author adashrod@gmail.com
  */
 public class RectangularWallModelGenerator {
     private final LinearWallModel model;
-    private final boolean[][] isWall;
+    private final Stream<LinearWallModel.Wall> wallStream;
+    private final int width;
+    private final int height;
+    private final boolean favorEwWalls;
+    /**
+     * bit y * (width + 1) + x is set if a wall covers corner (x, y), which is (2x, 2y) in the rectangular model
+     */
+    private final BitSet cornerHasWall;
+    private boolean startedSecondSetOfWalls;
 
     public RectangularWallModelGenerator(final LinearWallModel model) {
+        this(model, null, model.width, model.height, model.favorEwWalls);
+    }
+
+    /**
+     * Creates a generator that consumes walls as they're streamed, e.g. from {@link LinearWallModelGenerator#stream()},
+     * instead of from a complete {@link LinearWallModel}. All walls in the favored direction have to come before any
+     * walls in the other direction, which is how LinearWallModelGenerator streams them.
+     * @param width        width of the linear wall model, i.e. the number of columns in the maze
+     * @param height       height of the linear wall model
+     * @param favorEwWalls whether the walls favor east-west walls
+     * @param walls        the walls to consume
+     */
+    public RectangularWallModelGenerator(final int width, final int height, final boolean favorEwWalls,
+            final Stream<LinearWallModel.Wall> walls) {
+        this(null, walls, width, height, favorEwWalls);
+    }
+
+    private RectangularWallModelGenerator(final LinearWallModel model, final Stream<LinearWallModel.Wall> wallStream,
+            final int width, final int height, final boolean favorEwWalls) {
         this.model = model;
-        isWall = new boolean[2 * model.height + 1][2 * model.width + 1];
+        this.wallStream = wallStream;
+        this.width = width;
+        this.height = height;
+        this.favorEwWalls = favorEwWalls;
+        cornerHasWall = new BitSet((width + 1) * (height + 1));
     }
 
     public RectangularWallModel generate() {
-        final RectangularWallModel rectangularWallModel = new RectangularWallModel(isWall[0].length, isWall.length);
+        final RectangularWallModel rectangularWallModel = new RectangularWallModel(2 * width + 1, 2 * height + 1);
+        if (model == null) {
+            wallStream.forEach((final LinearWallModel.Wall wall) -> addStreamedWall(rectangularWallModel, wall));
+            return rectangularWallModel;
+        }
 
-        final Collection<LinearWallModel.Wall> verticalWalls = new ArrayList<>(), horizontalWalls = new ArrayList<>();
-        model.walls.forEach((final LinearWallModel.Wall wall) -> {
-            final Direction wallDirection = determineDirection(wall.start, wall.end);
-            if (wallDirection == NORTH || wallDirection == WEST) {
-                throw new IllegalStateException("wall direction should only be EAST or SOUTH (start-to-end should be left-to-right or top-to-bottom): " +
-                    wall.toString());
+        // favored walls first, then the others, each in the order they're in the model
+        for (int i = 0; i < model.getNumWalls(); i++) {
+            if (model.isVertical(i) != favorEwWalls) {
+                createWallSpacesFromLinearWall(rectangularWallModel, model.getStartX(i), model.getStartY(i),
+                    model.getEndX(i), model.getEndY(i), model.isVertical(i), true);
             }
-            final boolean isVertical = wallDirection == SOUTH;
-            if (isVertical) {
-                verticalWalls.add(wall);
-            } else {
-                horizontalWalls.add(wall);
+        }
+        for (int i = 0; i < model.getNumWalls(); i++) {
+            if (model.isVertical(i) == favorEwWalls) {
+                createWallSpacesFromLinearWall(rectangularWallModel, model.getStartX(i), model.getStartY(i),
+                    model.getEndX(i), model.getEndY(i), model.isVertical(i), false);
             }
-        });
-        if (model.favorEwWalls) {
-            createWallSpacesFromLinearWalls(rectangularWallModel, horizontalWalls, false, true);
-            createWallSpacesFromLinearWalls(rectangularWallModel, verticalWalls, true, false);
-        } else {
-            createWallSpacesFromLinearWalls(rectangularWallModel, verticalWalls, true, true);
-            createWallSpacesFromLinearWalls(rectangularWallModel, horizontalWalls, false, false);
         }
-
         return rectangularWallModel;
     }
 
-    private void createWallSpacesFromLinearWalls(final RectangularWallModel rectangularWallModel,
-            final Iterable<LinearWallModel.Wall> walls, final boolean wallsAreVertical, final boolean isFirstSetOfWalls) {
-        final Direction endDirection = wallsAreVertical ? SOUTH : EAST;
-        walls.forEach((final LinearWallModel.Wall wall) -> {
-            int wsx = wall.start.x * 2, wex = wall.end.x * 2, wsy = wall.start.y * 2, wey = wall.end.y * 2;
-            if (!isFirstSetOfWalls) {
-                if (wallsAreVertical) {
-                    if (isWall[wsy][wsx]) { wsy++; }
-                    if (isWall[wey][wex]) { wey--; }
-                } else {
-                    if (isWall[wsy][wsx]) { wsx++; }
-                    if (isWall[wey][wex]) { wex--; }
-                }
+    private boolean isVertical(final LinearWallModel.Wall wall) {
+        final Direction wallDirection = determineDirection(wall.start, wall.end);
+        if (wallDirection == NORTH || wallDirection == WEST) {
+            throw new IllegalStateException("wall direction should only be EAST or SOUTH (start-to-end should be left-to-right or top-to-bottom): " +
+                wall.toString());
+        }
+        return wallDirection == SOUTH;
+    }
+
+    private void addStreamedWall(final RectangularWallModel rectangularWallModel, final LinearWallModel.Wall wall) {
+        final boolean wallIsVertical = isVertical(wall), isFirstSetOfWalls = wallIsVertical != favorEwWalls;
+        if (!isFirstSetOfWalls) {
+            startedSecondSetOfWalls = true;
+        } else if (startedSecondSetOfWalls) {
+            throw new IllegalStateException("walls in the favored direction have to come before the others: " +
+                wall.toString());
+        }
+        createWallSpacesFromLinearWall(rectangularWallModel, wall.start.x, wall.start.y, wall.end.x, wall.end.y,
+            wallIsVertical, isFirstSetOfWalls);
+    }
+
+    private void createWallSpacesFromLinearWall(final RectangularWallModel rectangularWallModel, final int startX,
+            final int startY, final int endX, final int endY, final boolean wallIsVertical,
+            final boolean isFirstSetOfWalls) {
+        int wsx = startX * 2, wex = endX * 2, wsy = startY * 2, wey = endY * 2;
+        if (!isFirstSetOfWalls) {
+            final boolean trimStart = hasWall(startX, startY), trimEnd = hasWall(endX, endY);
+            if (wallIsVertical) {
+                if (trimStart) { wsy++; }
+                if (trimEnd) { wey--; }
+            } else {
+                if (trimStart) { wsx++; }
+                if (trimEnd) { wex--; }
             }
-            final RectangularWallModel.Wall rectWall = new RectangularWallModel.Wall(new OrderedPair<>(wsx, wsy),
-                new OrderedPair<>(wex, wey), endDirection);
-            rectangularWallModel.addWall(rectWall);
-            fillOutWallSpaces(wallsAreVertical, wsx, wsy, wex, wey);
-        });
+        }
+        rectangularWallModel.addWall(wsx, wsy, wex, wey, wallIsVertical ? SOUTH : EAST);
+        fillOutWallSpaces(wallIsVertical, wsx, wsy, wex, wey);
+    }
+
+    private boolean hasWall(final int cornerX, final int cornerY) {
+        return cornerHasWall.get(cornerY * (width + 1) + cornerX);
     }
 
+    /**
+     * marks the corners that a wall covers; a wall that was trimmed doesn't cover the corners at its ends
+     */
     private void fillOutWallSpaces(final boolean wallsAreVertical, final int wsx, final int wsy, final int wex,
             final int wey) {
         if (wallsAreVertical) {
-            for (int y = wsy; y <= wey; y++) {
-                isWall[y][wsx] = true;
+            final int x = wsx / 2;
+            for (int y = (wsy + 1) / 2; y <= wey / 2; y++) {
+                cornerHasWall.set(y * (width + 1) + x);
             }
         } else {
-            for (int x = wsx; x <= wex; x++) {
-                isWall[wsy][x] = true;
-            }
+            final int rowStart = wsy / 2 * (width + 1);
+            cornerHasWall.set(rowStart + (wsx + 1) / 2, rowStart + wex / 2 + 1);
         }
-
     }
 }
@@ -1,6 +1,7 @@
 package com.adashrod.lasercutthings.mazes.factories;
 
-import com.adashrod.lasercutthings.common.OrderedPair;
+import com.adashrod.lasercutthings.common.Fixed;
+import com.adashrod.lasercutthings.common.FixedPoint;
 import com.adashrod.lasercutthings.common.Unit;
 import com.adashrod.lasercutthings.mazes.Direction;
 import com.adashrod.lasercutthings.mazes.models.Path;
@@ -11,10 +12,13 @@ import com.adashrod.lasercutthings.mazes.models.VectorNumber;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import static com.adashrod.lasercutthings.mazes.Direction.EAST;
 import static com.adashrod.lasercutthings.mazes.Direction.NORTH;
@@ -25,6 +29,8 @@ import static java.math.BigDecimal.ZERO;
 /**
  * An instance of SheetWallModelGenerator can be used to create {@link SheetWallModel}s from
  * {@link RectangularWallModel}s.
+ * All lengths are {@link Fixed} px, so the notch and hall positions, which are sums of multiples of the material
+ * thickness and hall width, are exact.
  * @author adashrod@gmail.com
  */
 public class SheetWallModelGenerator {
@@ -35,26 +41,22 @@ public class SheetWallModelGenerator {
     public static final BigDecimal DEFAULT_SEPARATION_SPACE = new BigDecimal(".05");
     public static final BigDecimal DEFAULT_MAX_WIDTH = new BigDecimal("19.5");
     public static final BigDecimal DEFAULT_MAX_HEIGHT = new BigDecimal("11");
-
-    private final BigDecimal wallHeight;
-    private final BigDecimal materialThickness;
-    private final BigDecimal hallWidth;
-    private final BigDecimal notchHeight;
-    private final BigDecimal separationSpace;
-    private final BigDecimal maxWidth;
-    private final BigDecimal maxHeight;
-
-    private final Map<Path, NotchPosInfo> notchEdgeMap = new HashMap<>();
+    private static final int WALL_TEMPLATE_POINTS = 8;
+
+    private final long wallHeight;
+    private final long materialThickness;
+    private final long hallWidth;
+    private final long notchHeight;
+    private final long separationSpace;
+    private final long maxWidth;
+    private final long maxHeight;
+    private final boolean multipleSheets;
+    private final TilingStrategy tilingStrategy;
+
+    private final Map<Direction, List<Path>> edgeNotches = new EnumMap<>(Direction.class);
     private final RectangularWallModel model;
-    private final Map<BigDecimal, Integer> wallTypeLabelsByLength = new HashMap<>();
-
-    private static final Map<Direction, Integer> directionRank = new HashMap<>();
-    static {
-        directionRank.put(NORTH, 0);
-        directionRank.put(EAST, 1);
-        directionRank.put(SOUTH, 2);
-        directionRank.put(WEST, 3);
-    }
+    private final Map<Long, Integer> wallTypeLabelsByLength = new HashMap<>();
+    private final Map<Long, Path> wallTemplatesByLength = new HashMap<>();
 
     public SheetWallModelGenerator(final RectangularWallModel model, final Config config) {
         this.model = model;
@@ -65,6 +67,11 @@ public class SheetWallModelGenerator {
         this.separationSpace = config.separationSpace;
         this.maxWidth = config.maxWidth;
         this.maxHeight = config.maxHeight;
+        this.multipleSheets = config.multipleSheets;
+        this.tilingStrategy = config.tilingStrategy;
+        for (final Direction direction: Direction.values()) {
+            edgeNotches.put(direction, new ArrayList<>());
+        }
     }
 
     public SheetWallModel generate() {
@@ -72,32 +79,58 @@ public class SheetWallModelGenerator {
 
         // for now, all walls and the floor will be positioned at (0,0). They'll be translated and tiled on the
         // print sheet later
-        final List<RectangularWallModel.Wall> sortedWalls = new ArrayList<>(model.walls);
-        sortedWalls.sort(Comparator.comparing(wall -> wall.length));
-        for (final RectangularWallModel.Wall wall: sortedWalls) {
-            final BigDecimal wallLength = createNotchesForWall(wall, sheetWallModel);
-            final Path wallPath = new Path()
-                .addPoint(new OrderedPair<>(ZERO, ZERO))
-                .addPoint(new OrderedPair<>(wallLength, ZERO))
-                .addPoint(new OrderedPair<>(wallLength, wallHeight.add(materialThickness)))
-                .addPoint(new OrderedPair<>(wallLength.subtract(notchHeight), wallHeight.add(materialThickness)))
-                .addPoint(new OrderedPair<>(wallLength.subtract(notchHeight), wallHeight))
-                .addPoint(new OrderedPair<>(notchHeight, wallHeight))
-                .addPoint(new OrderedPair<>(notchHeight, wallHeight.add(materialThickness)))
-                .addPoint(new OrderedPair<>(ZERO, wallHeight.add(materialThickness)));
+        for (final int i: orderByLength(model)) {
+            final long wallLength = createNotchesForWall(model.getStartX(i), model.getStartY(i), model.getEndX(i),
+                model.getEndY(i), model.getWallDirection(i), sheetWallModel);
+            // walls of the same length share the points of one template until they're changed
+            final Path wallPath = wallTemplatesByLength.computeIfAbsent(wallLength, this::createWallTemplate).copy();
             final Shape wallShape = new Shape(wallPath);
             sheetWallModel.addShape(wallShape);
             final int wallTypeLabel = findWallTypeLabel(wallLength);
-            final BigDecimal vnHeight = wallHeight.multiply(new BigDecimal(".5")),
-                vnWidth = vnHeight.multiply(new BigDecimal(".5")).multiply(new BigDecimal(numDigits(wallTypeLabel)));
-            sheetWallModel.wallLabels.put(wallShape, new VectorNumber(wallTypeLabel, vnWidth.min(wallLength), vnHeight,
-                new OrderedPair<>(ZERO, ZERO))); // translate in optimizer
+            final long vnHeight = Fixed.half(wallHeight), vnWidth = Fixed.half(vnHeight) * numDigits(wallTypeLabel);
+            sheetWallModel.wallLabels.put(wallShape, new VectorNumber(wallTypeLabel, Math.min(vnWidth, wallLength),
+                vnHeight, new FixedPoint(0, 0))); // translate in optimizer
         }
         createOutline(sheetWallModel);
-        new SheetWallTilingOptimizer(sheetWallModel, separationSpace, maxWidth, maxHeight, wallHeight).optimize();
+        tilingStrategy.tile(sheetWallModel, separationSpace, maxWidth, maxHeight, wallHeight, multipleSheets);
         return sheetWallModel;
     }
 
+    private Path createWallTemplate(final long wallLength) {
+        return new Path(WALL_TEMPLATE_POINTS)
+            .addPoint(0, 0)
+            .addPoint(wallLength, 0)
+            .addPoint(wallLength, wallHeight + materialThickness)
+            .addPoint(wallLength - notchHeight, wallHeight + materialThickness)
+            .addPoint(wallLength - notchHeight, wallHeight)
+            .addPoint(notchHeight, wallHeight)
+            .addPoint(notchHeight, wallHeight + materialThickness)
+            .addPoint(0, wallHeight + materialThickness);
+    }
+
+    /**
+     * a stable counting sort of the walls by length, which is the order the parts are made in
+     * @return indexes of the walls in the model, shortest first
+     */
+    private static int[] orderByLength(final RectangularWallModel model) {
+        int maxLength = 0;
+        for (int i = 0; i < model.getNumWalls(); i++) {
+            maxLength = Math.max(maxLength, model.getLength(i));
+        }
+        final int[] firstIndexOfLength = new int[maxLength + 2];
+        for (int i = 0; i < model.getNumWalls(); i++) {
+            firstIndexOfLength[model.getLength(i) + 1]++;
+        }
+        for (int length = 1; length < firstIndexOfLength.length; length++) {
+            firstIndexOfLength[length] += firstIndexOfLength[length - 1];
+        }
+        final int[] order = new int[model.getNumWalls()];
+        for (int i = 0; i < model.getNumWalls(); i++) {
+            order[firstIndexOfLength[model.getLength(i)]++] = i;
+        }
+        return order;
+    }
+
     /**
      * given an index of a grid cell, calculates the physical distance to the start (left or top) of that cell from the
      * beginning of the floor
@@ -105,139 +138,180 @@ public class SheetWallModelGenerator {
      * @return the left x displacement of the notch for horizontal displacements or the top y displacement for vertical
      * displacements
      */
-    private BigDecimal calcDisplacement(final int index) {
-        final BigDecimal mtFactor = new BigDecimal((index + 1) / 2),
-            hwFactor = new BigDecimal(index / 2);
-        return materialThickness.multiply(mtFactor).add(hallWidth.multiply(hwFactor));
+    private long calcDisplacement(final int index) {
+        return materialThickness * ((index + 1) / 2) + hallWidth * (index / 2);
     }
 
-    private BigDecimal createNotchesForWall(final RectangularWallModel.Wall wall, final SheetWallModel sheetWallModel) {
-        final BigDecimal half = new BigDecimal(".5");
+    private long createNotchesForWall(final int startX, final int startY, final int endX, final int endY,
+            final Direction wallDirection, final SheetWallModel sheetWallModel) {
         // notches in the floor for the wall tabs to fit into
         final Path firstNotch = new Path(),
             secondNotch = new Path();
-        final BigDecimal wallLength;
+        final long wallLength;
         final VectorNumber vectorNumber;
-        if (wall.getWallDirection() == EAST) {
-            wallLength = calcDisplacement(wall.end.x + 1)
-                .subtract(calcDisplacement(wall.start.x));
+        if (wallDirection == EAST) {
+            wallLength = calcDisplacement(endX + 1) - calcDisplacement(startX);
             final int wallTypeLabel = findWallTypeLabel(wallLength);
-            final BigDecimal startDisplacementX = calcDisplacement(wall.start.x),
-                endDisplacementX = calcDisplacement(wall.end.x + 1).subtract(notchHeight),
-                displacementY = calcDisplacement(wall.start.y);
-            final BigDecimal spaceBetweenNotches = endDisplacementX.subtract(startDisplacementX).subtract(notchHeight);
-            BigDecimal vnWidth = materialThickness.multiply(half).multiply(new BigDecimal(numDigits(wallTypeLabel)));
-            vnWidth = vnWidth.min(spaceBetweenNotches);
-            vectorNumber = new VectorNumber(wallTypeLabel, vnWidth, materialThickness, new OrderedPair<>(
-                startDisplacementX.add(notchHeight).add(spaceBetweenNotches.multiply(half).subtract(vnWidth.multiply(half))), displacementY));
+            final long startDisplacementX = calcDisplacement(startX),
+                endDisplacementX = calcDisplacement(endX + 1) - notchHeight,
+                displacementY = calcDisplacement(startY);
+            final long spaceBetweenNotches = endDisplacementX - startDisplacementX - notchHeight;
+            final long vnWidth = Math.min(Fixed.half(materialThickness) * numDigits(wallTypeLabel),
+                spaceBetweenNotches);
+            vectorNumber = new VectorNumber(wallTypeLabel, vnWidth, materialThickness, new FixedPoint(
+                startDisplacementX + notchHeight + Fixed.half(spaceBetweenNotches) - Fixed.half(vnWidth), displacementY));
             sheetWallModel.floorNumbers.add(vectorNumber);
-            firstNotch.addPoint(new OrderedPair<>(startDisplacementX, displacementY))
-                .addPoint(new OrderedPair<>(startDisplacementX.add(notchHeight), displacementY))
-                .addPoint(new OrderedPair<>(startDisplacementX.add(notchHeight), displacementY.add(materialThickness)))
-                .addPoint(new OrderedPair<>(startDisplacementX, displacementY.add(materialThickness)));
-            secondNotch.addPoint(new OrderedPair<>(endDisplacementX, displacementY))
-                .addPoint(new OrderedPair<>(endDisplacementX.add(notchHeight), displacementY))
-                .addPoint(new OrderedPair<>(endDisplacementX.add(notchHeight), displacementY.add(materialThickness)))
-                .addPoint(new OrderedPair<>(endDisplacementX, displacementY.add(materialThickness)));
+            firstNotch.addPoint(new FixedPoint(startDisplacementX, displacementY))
+                .addPoint(new FixedPoint(startDisplacementX + notchHeight, displacementY))
+                .addPoint(new FixedPoint(startDisplacementX + notchHeight, displacementY + materialThickness))
+                .addPoint(new FixedPoint(startDisplacementX, displacementY + materialThickness));
+            secondNotch.addPoint(new FixedPoint(endDisplacementX, displacementY))
+                .addPoint(new FixedPoint(endDisplacementX + notchHeight, displacementY))
+                .addPoint(new FixedPoint(endDisplacementX + notchHeight, displacementY + materialThickness))
+                .addPoint(new FixedPoint(endDisplacementX, displacementY + materialThickness));
         } else {
-            wallLength = calcDisplacement(wall.end.y + 1)
-                .subtract(calcDisplacement(wall.start.y));
+            wallLength = calcDisplacement(endY + 1) - calcDisplacement(startY);
             final int wallTypeLabel = findWallTypeLabel(wallLength);
-            final BigDecimal startDisplacementY = calcDisplacement(wall.start.y),
-                endDisplacementY = calcDisplacement(wall.end.y + 1).subtract(notchHeight),
-                displacementX = calcDisplacement(wall.start.x);
-            final BigDecimal spaceBetweenNotches = endDisplacementY.subtract(startDisplacementY).subtract(notchHeight);
-            BigDecimal vnWidth = materialThickness.multiply(half).multiply(new BigDecimal(numDigits(wallTypeLabel)));
-            vnWidth = vnWidth.min(materialThickness);
-            vectorNumber = new VectorNumber(wallTypeLabel, vnWidth, materialThickness, new OrderedPair<>(displacementX.add(materialThickness.multiply(half)).subtract(vnWidth.multiply(half)),
-                startDisplacementY.add(notchHeight).add(spaceBetweenNotches.multiply(half).subtract(materialThickness.multiply(half)))));
+            final long startDisplacementY = calcDisplacement(startY),
+                endDisplacementY = calcDisplacement(endY + 1) - notchHeight,
+                displacementX = calcDisplacement(startX);
+            final long spaceBetweenNotches = endDisplacementY - startDisplacementY - notchHeight;
+            final long vnWidth = Math.min(Fixed.half(materialThickness) * numDigits(wallTypeLabel), materialThickness);
+            vectorNumber = new VectorNumber(wallTypeLabel, vnWidth, materialThickness, new FixedPoint(
+                displacementX + Fixed.half(materialThickness) - Fixed.half(vnWidth),
+                startDisplacementY + notchHeight + Fixed.half(spaceBetweenNotches) - Fixed.half(materialThickness)));
             sheetWallModel.floorNumbers.add(vectorNumber);
-            firstNotch.addPoint(new OrderedPair<>(displacementX, startDisplacementY))
-                .addPoint(new OrderedPair<>(displacementX.add(materialThickness), startDisplacementY))
-                .addPoint(new OrderedPair<>(displacementX.add(materialThickness), startDisplacementY.add(notchHeight)))
-                .addPoint(new OrderedPair<>(displacementX, startDisplacementY.add(notchHeight)));
-            secondNotch.addPoint(new OrderedPair<>(displacementX, endDisplacementY))
-                .addPoint(new OrderedPair<>(displacementX.add(materialThickness), endDisplacementY))
-                .addPoint(new OrderedPair<>(displacementX.add(materialThickness), endDisplacementY.add(notchHeight)))
-                .addPoint(new OrderedPair<>(displacementX, endDisplacementY.add(notchHeight)));
-        }
-        addNotchToEdgeMap(wall.start, firstNotch);
-        addNotchToEdgeMap(wall.end, secondNotch);
-        sheetWallModel.floorNotches.addPath(firstNotch).addPath(secondNotch);
+            firstNotch.addPoint(new FixedPoint(displacementX, startDisplacementY))
+                .addPoint(new FixedPoint(displacementX + materialThickness, startDisplacementY))
+                .addPoint(new FixedPoint(displacementX + materialThickness, startDisplacementY + notchHeight))
+                .addPoint(new FixedPoint(displacementX, startDisplacementY + notchHeight));
+            secondNotch.addPoint(new FixedPoint(displacementX, endDisplacementY))
+                .addPoint(new FixedPoint(displacementX + materialThickness, endDisplacementY))
+                .addPoint(new FixedPoint(displacementX + materialThickness, endDisplacementY + notchHeight))
+                .addPoint(new FixedPoint(displacementX, endDisplacementY + notchHeight));
+        }
+        addFloorNotch(startX, startY, firstNotch, sheetWallModel);
+        addFloorNotch(endX, endY, secondNotch, sheetWallModel);
         return wallLength;
     }
+
     /**
-     * Each notch that touches the edge of the floor is kept in notchEdgeMap to keep track of which edge it's touching.
-     * For notches that are on corner squares, they are only considered part of one edge; it is the edge that is further
-     * clockwise.
-     * @param wallEndCapCoords the grid-based coordinates of the notch
-     * @param notch            the Path object for the notch
+     * Notches that touch the edge of the floor are open to the outside, so they're cut as part of the outline instead
+     * of on their own, and they're kept in edgeNotches to keep track of which edge they're touching. For notches that
+     * are on corner squares, they are only considered part of one edge; it is the edge that is further clockwise.
+     * Other notches are added to the floor.
+     * @param wallEndCapX the grid-based x coordinate of the notch
+     * @param wallEndCapY the grid-based y coordinate of the notch
+     * @param notch       the Path object for the notch
      */
-    private void addNotchToEdgeMap(final OrderedPair<Integer> wallEndCapCoords, final Path notch) {
+    private void addFloorNotch(final int wallEndCapX, final int wallEndCapY, final Path notch,
+            final SheetWallModel sheetWallModel) {
         final int lastRow = model.height - 1, lastCol = model.width - 1;
-        if (wallEndCapCoords.y.equals(0) && !wallEndCapCoords.x.equals(lastCol)) {
-            notchEdgeMap.put(notch, new NotchPosInfo(NORTH, wallEndCapCoords.x.equals(0)));
-        } else if (wallEndCapCoords.x.equals(lastCol) && !wallEndCapCoords.y.equals(lastRow)) {
-            notchEdgeMap.put(notch, new NotchPosInfo(EAST, wallEndCapCoords.y.equals(0)));
-        } else if (wallEndCapCoords.y.equals(lastRow) && !wallEndCapCoords.x.equals(0)) {
-            notchEdgeMap.put(notch, new NotchPosInfo(SOUTH, wallEndCapCoords.x.equals(lastCol)));
-        } else if (wallEndCapCoords.x.equals(0) && !wallEndCapCoords.y.equals(0)) {
-            notchEdgeMap.put(notch, new NotchPosInfo(WEST, wallEndCapCoords.y.equals(lastRow)));
+        if (wallEndCapY == 0 && wallEndCapX != lastCol) {
+            edgeNotches.get(NORTH).add(notch);
+        } else if (wallEndCapX == lastCol && wallEndCapY != lastRow) {
+            edgeNotches.get(EAST).add(notch);
+        } else if (wallEndCapY == lastRow && wallEndCapX != 0) {
+            edgeNotches.get(SOUTH).add(notch);
+        } else if (wallEndCapX == 0 && wallEndCapY != 0) {
+            edgeNotches.get(WEST).add(notch);
+        } else {
+            sheetWallModel.floorNotches.addPath(notch);
         }
     }
 
     /**
-     * Iterates over the edge notches and creates paths connecting them to create the vaguely rectangular outline of the
-     * floor
-     * @param sheetWallModel model to add paths to
+     * Creates the outline of the floor as one closed path: the rectangle of the floor with the edge notches cut out of
+     * it. Each edge is walked clockwise (N: left to right, E: top to bottom, S: right to left, W: bottom to top) and
+     * the notches on it, which all stand on the edge, are joined into one profile of how far the outline is set in from
+     * the edge at each point along it. Corners where an edge ends on a notch and the next edge starts on the floor's
+     * corner (or the other way around) leave a dead end in the walk, which is removed along with points that aren't
+     * corners.
+     * @param sheetWallModel model to add the path to
      */
     private void createOutline(final SheetWallModel sheetWallModel) {
-        final List<Path> paths = new ArrayList<>(notchEdgeMap.keySet());
-        paths.sort(edgeNotchComparator);
-        for (int i = 0; i < paths.size(); i++) {
-            final Path notch = paths.get(i);
-            final Path nextNotch = i < paths.size() - 1 ? paths.get(i + 1) : paths.get(0);
-            final NotchPosInfo notchInfo = notchEdgeMap.get(notch), nextNotchInfo = notchEdgeMap.get(nextNotch);
-            if (notchInfo.direction == nextNotchInfo.direction || nextNotchInfo.isCorner) {
-                final NotchConnection points = findNotchConnectionPoints(notchInfo, notch, nextNotch, false);
-                final OrderedPair<BigDecimal> firstPoint = points.firstPoint, secondPoint = points.secondPoint;
-                if (!firstPoint.equals(secondPoint)) {
-                    sheetWallModel.floorOutline.addPath(new Path(firstPoint, secondPoint).setClosed(false));
-                } else {
-                    System.out.println("DEBUG: skipping connecting floor outer path because it's length 0: " + firstPoint.toString());
-                }
-            } else { // notches are on different sides and neither is a corner (unusual case of both parts of a corner of the maze being open)
-                final NotchConnection points = findNotchConnectionPoints(notchInfo, notch, nextNotch, true);
-                sheetWallModel.floorOutline.addPath(new Path(points.firstPoint, points.cornerPoint).setClosed(false));
-                sheetWallModel.floorOutline.addPath(new Path(points.cornerPoint, points.secondPoint).setClosed(false));
+        final long floorWidth = calcDisplacement(model.width), floorHeight = calcDisplacement(model.height);
+        final OutlineBuilder outline = new OutlineBuilder();
+        // NORTH, EAST, SOUTH, WEST is clockwise
+        for (final Direction edge: Direction.values()) {
+            final long edgeLength = edge == NORTH || edge == SOUTH ? floorWidth : floorHeight;
+            final long[] profile = findEdgeProfile(edge, edgeNotches.get(edge), floorWidth, floorHeight);
+            long insetBefore = 0;
+            for (int i = 0; i < profile.length; i += 2) {
+                final long position = profile[i], inset = profile[i + 1];
+                outline.addPoint(edge, position, insetBefore, floorWidth, floorHeight);
+                outline.addPoint(edge, position, inset, floorWidth, floorHeight);
+                insetBefore = inset;
             }
+            outline.addPoint(edge, edgeLength, insetBefore, floorWidth, floorHeight);
         }
+        sheetWallModel.floorOutline.addPath(outline.build());
     }
 
-    private NotchConnection findNotchConnectionPoints(final NotchPosInfo notchInfo,
-            final Path notch, final Path nextNotch, final boolean includeCorner) {
-        final int nextNotchAdditive = includeCorner ? 1 : 0;
-        final OrderedPair<BigDecimal> firstPoint, floorCornerPoint, secondPoint;
-        if (notchInfo.direction == NORTH) {
-            firstPoint = notch.points.get(1);
-            secondPoint = nextNotch.points.get(nextNotchAdditive);
-            floorCornerPoint = new OrderedPair<>(secondPoint.x, firstPoint.y);
-        } else if (notchInfo.direction == EAST) {
-            firstPoint = notch.points.get(2);
-            secondPoint = nextNotch.points.get(1 + nextNotchAdditive);
-            floorCornerPoint = new OrderedPair<>(firstPoint.x, secondPoint.y);
-        } else if (notchInfo.direction == SOUTH) {
-            firstPoint = notch.points.get(3);
-            secondPoint = nextNotch.points.get(2 + nextNotchAdditive);
-            floorCornerPoint = new OrderedPair<>(secondPoint.x, firstPoint.y);
-        } else if (notchInfo.direction == WEST) {
-            firstPoint = notch.points.get(0);
-            secondPoint = nextNotch.points.get(3 + nextNotchAdditive % 4);
-            floorCornerPoint = new OrderedPair<>(firstPoint.x, secondPoint.y);
-        } else {
-            throw new IllegalStateException("notch is not in edge map, but is on edge");
+    /**
+     * Sweeps along one edge of the floor to find the union of the notches on it. Each notch covers a range of positions
+     * along the edge and sets the outline in by its depth; where notches overlap, the deepest one wins.
+     * @return pairs of (position, inset) for each position along the edge where the inset changes, in order
+     */
+    private static long[] findEdgeProfile(final Direction edge, final List<Path> notches, final long floorWidth,
+            final long floorHeight) {
+        // each event is (position, depth), with a negative depth for the end of a notch
+        final long[][] events = new long[notches.size() * 2][];
+        for (int i = 0; i < notches.size(); i++) {
+            final Path notch = notches.get(i);
+            final long start, end, depth;
+            if (edge == NORTH) {
+                start = notch.findMinX();
+                end = notch.findMaxX();
+                depth = notch.findMaxY();
+            } else if (edge == EAST) {
+                start = notch.findMinY();
+                end = notch.findMaxY();
+                depth = floorWidth - notch.findMinX();
+            } else if (edge == SOUTH) {
+                start = floorWidth - notch.findMaxX();
+                end = floorWidth - notch.findMinX();
+                depth = floorHeight - notch.findMinY();
+            } else {
+                start = floorHeight - notch.findMaxY();
+                end = floorHeight - notch.findMinY();
+                depth = notch.findMaxX();
+            }
+            events[i * 2] = new long[] {start, depth};
+            events[i * 2 + 1] = new long[] {end, -depth};
         }
-        return new NotchConnection(firstPoint, floorCornerPoint, secondPoint);
+        Arrays.sort(events, (final long[] e1, final long[] e2) -> Long.compare(e1[0], e2[0]));
+        return sweepEdgeEvents(events);
+    }
+
+    /**
+     * @param events (position, depth) pairs sorted by position, with a negative depth for the end of a notch
+     * @return pairs of (position, inset) for each position where the deepest active notch changes, in order
+     */
+    private static long[] sweepEdgeEvents(final long[][] events) {
+        final NavigableMap<Long, Integer> activeDepths = new TreeMap<>();
+        final long[] profile = new long[events.length * 2];
+        int profileLength = 0;
+        long inset = 0;
+        for (int i = 0; i < events.length; ) {
+            final long position = events[i][0];
+            for (; i < events.length && events[i][0] == position; i++) {
+                final long depth = events[i][1];
+                if (depth >= 0) {
+                    activeDepths.merge(depth, 1, Integer::sum);
+                } else {
+                    activeDepths.merge(-depth, -1, (final Integer count, final Integer minusOne) ->
+                        count + minusOne == 0 ? null : count + minusOne);
+                }
+            }
+            final long newInset = activeDepths.isEmpty() ? 0 : activeDepths.lastKey();
+            if (newInset != inset) {
+                profile[profileLength++] = position;
+                profile[profileLength++] = newInset;
+                inset = newInset;
+            }
+        }
+        return Arrays.copyOf(profile, profileLength);
     }
 
     private int numDigits(final long number) {
@@ -253,7 +327,7 @@ public class SheetWallModelGenerator {
         }
     }
 
-    private int findWallTypeLabel(final BigDecimal wallLength) {
+    private int findWallTypeLabel(final long wallLength) {
         Integer label = wallTypeLabelsByLength.get(wallLength);
         if (label != null) {
             return label;
@@ -263,59 +337,50 @@ public class SheetWallModelGenerator {
         return label;
     }
 
-    /**
-     * sorts notches on the edge of the floor in a clockwise fashion: N,E,S,W so that the top left corner is the "lowest"
-     * and a notch directly below that is the highest
-     * e.g.
-     * 1234
-     * C  5
-     * B  6
-     * A987
-     */
-    private final Comparator<Path> edgeNotchComparator = (final Path p1, final Path p2) -> {
-        final Direction p1Dir = notchEdgeMap.get(p1).direction, p2Dir = notchEdgeMap.get(p2).direction;
-        final int dirCmp = Integer.compare(directionRank.get(p1Dir), directionRank.get(p2Dir));
-        if (dirCmp != 0) {
-            return dirCmp;
-        }
-        // p1Dir == p2Dir
-        if (p1Dir == NORTH) {
-            return p1.points.get(0).x.compareTo(p2.points.get(0).x);
-        } else if (p1Dir == EAST) {
-            return p1.points.get(0).y.compareTo(p2.points.get(0).y);
-        } else if (p1Dir == SOUTH) {
-            return p2.points.get(0).x.compareTo(p1.points.get(0).x);
-        } else if (p1Dir == WEST) {
-            return p2.points.get(0).y.compareTo(p1.points.get(0).y);
-        } else {
-            throw new IllegalStateException("notch is not in edge map, but is on edge");
-        }
-    };
-
     public static ConfigBuilder configure() {
         return new ConfigBuilder();
     }
 
     public static class Config {
-        // all of these values are in px, not in or cm
-        private final BigDecimal wallHeight;
-        private final BigDecimal materialThickness;
-        private final BigDecimal hallWidth;
-        private final BigDecimal notchHeight;
-        private final BigDecimal separationSpace;
-        private final BigDecimal maxWidth;
-        private final BigDecimal maxHeight;
+        // all of these values are in Fixed px, not in or cm
+        private final long wallHeight;
+        private final long materialThickness;
+        private final long hallWidth;
+        private final long notchHeight;
+        private final long separationSpace;
+        private final long maxWidth;
+        private final long maxHeight;
+        private final boolean multipleSheets;
+        private final TilingStrategy tilingStrategy;
 
         public Config(final Unit unit, final BigDecimal wallHeight, final BigDecimal materialThickness,
                 final BigDecimal hallWidth, final BigDecimal notchHeight, final BigDecimal separationSpace,
                 final BigDecimal maxWidth, final BigDecimal maxHeight) {
-            this.wallHeight = wallHeight.multiply(unit.getPixelsPer());
-            this.materialThickness = materialThickness.multiply(unit.getPixelsPer());
-            this.hallWidth = hallWidth.multiply(unit.getPixelsPer());
-            this.notchHeight = notchHeight.multiply(unit.getPixelsPer());
-            this.separationSpace = separationSpace.multiply(unit.getPixelsPer());
-            this.maxWidth = maxWidth.multiply(unit.getPixelsPer());
-            this.maxHeight = maxHeight.multiply(unit.getPixelsPer());
+            this(unit, wallHeight, materialThickness, hallWidth, notchHeight, separationSpace, maxWidth, maxHeight,
+                false, TilingStrategy.COLUMNS);
+        }
+
+        public Config(final Unit unit, final BigDecimal wallHeight, final BigDecimal materialThickness,
+                final BigDecimal hallWidth, final BigDecimal notchHeight, final BigDecimal separationSpace,
+                final BigDecimal maxWidth, final BigDecimal maxHeight, final boolean multipleSheets,
+                final TilingStrategy tilingStrategy) {
+            this.wallHeight = Fixed.of(wallHeight.multiply(unit.getPixelsPer()));
+            this.materialThickness = Fixed.of(materialThickness.multiply(unit.getPixelsPer()));
+            this.hallWidth = Fixed.of(hallWidth.multiply(unit.getPixelsPer()));
+            this.notchHeight = Fixed.of(notchHeight.multiply(unit.getPixelsPer()));
+            this.separationSpace = Fixed.of(separationSpace.multiply(unit.getPixelsPer()));
+            this.maxWidth = Fixed.of(maxWidth.multiply(unit.getPixelsPer()));
+            this.maxHeight = Fixed.of(maxHeight.multiply(unit.getPixelsPer()));
+            this.multipleSheets = multipleSheets;
+            this.tilingStrategy = tilingStrategy;
+        }
+
+        long getMaxWidth() {
+            return maxWidth;
+        }
+
+        long getMaxHeight() {
+            return maxHeight;
         }
     }
 
@@ -328,6 +393,8 @@ public class SheetWallModelGenerator {
         private BigDecimal separationSpace = DEFAULT_SEPARATION_SPACE;
         private BigDecimal maxWidth = DEFAULT_MAX_WIDTH;
         private BigDecimal maxHeight = DEFAULT_MAX_HEIGHT;
+        private boolean multipleSheets;
+        private TilingStrategy tilingStrategy = TilingStrategy.COLUMNS;
 
         /**
          * sets preferred units for supplying values to the other setters in this class. Whichever is chosen, values
@@ -410,7 +477,41 @@ public class SheetWallModelGenerator {
             return this;
         }
 
+        /**
+         * sets whether parts that don't fit within the max width and max height go on more sheets of the same size
+         * instead of past the edge of the first one
+         * @param multipleSheets new value; defaults to false
+         * @return this
+         */
+        public ConfigBuilder withMultipleSheets(final boolean multipleSheets) {
+            this.multipleSheets = multipleSheets;
+            return this;
+        }
+
+        /**
+         * sets how the parts are arranged on the sheets
+         * @param tilingStrategy new value; defaults to {@link TilingStrategy#COLUMNS}
+         * @return this
+         */
+        public ConfigBuilder withTilingStrategy(final TilingStrategy tilingStrategy) {
+            this.tilingStrategy = tilingStrategy;
+            return this;
+        }
+
         public Config build() {
+            final StringBuilder errors = validate();
+            if (errors.length() > 0) {
+                errors.delete(errors.length() - 2, errors.length());
+                throw new IllegalArgumentException(errors.toString());
+            }
+            return new Config(unit, wallHeight, materialThickness, hallWidth, notchHeight, separationSpace, maxWidth,
+                maxHeight, multipleSheets, tilingStrategy);
+        }
+
+        /**
+         * @return a "; "-terminated message for each problem with the configuration, or nothing if it's valid
+         */
+        private StringBuilder validate() {
             final StringBuilder errors = new StringBuilder();
             if (unit == null) {
                 errors.append("unit must not be null; ");
@@ -436,35 +537,84 @@ public class SheetWallModelGenerator {
             if (maxHeight.compareTo(ZERO) <= 0) {
                 errors.append("maxHeight must be positive; ");
             }
-            if (errors.length() > 0) {
-                errors.delete(errors.length() - 2, errors.length());
-                throw new IllegalArgumentException(errors.toString());
+            if (tilingStrategy == null) {
+                errors.append("tilingStrategy must not be null; ");
             }
-            return new Config(unit, wallHeight, materialThickness, hallWidth, notchHeight, separationSpace, maxWidth,
-                maxHeight);
+            return errors;
         }
     }
 
-    private static final class NotchPosInfo {
-        private final Direction direction;
-        private final boolean isCorner;
+    /**
+     * collects the points of the outline, dropping each point that's on a straight line between its neighbors or that's
+     * the end of a dead end, so only the corners are left
+     */
+    private static final class OutlineBuilder {
+        private long[] xs = new long[16];
+        private long[] ys = new long[16];
+        private int numPoints;
 
-        private NotchPosInfo(final Direction direction, final boolean isCorner) {
-            this.direction = direction;
-            this.isCorner = isCorner;
+        /**
+         * @param edge     the edge being walked
+         * @param position distance along the edge, clockwise from its start
+         * @param inset    distance in from the edge
+         */
+        private void addPoint(final Direction edge, final long position, final long inset, final long floorWidth,
+                final long floorHeight) {
+            if (edge == NORTH) {
+                addPoint(position, inset);
+            } else if (edge == EAST) {
+                addPoint(floorWidth - inset, position);
+            } else if (edge == SOUTH) {
+                addPoint(floorWidth - position, floorHeight - inset);
+            } else {
+                addPoint(inset, floorHeight - position);
+            }
         }
-    }
 
-    private static final class NotchConnection {
-        private final OrderedPair<BigDecimal> firstPoint;
-        private final OrderedPair<BigDecimal> cornerPoint;
-        private final OrderedPair<BigDecimal> secondPoint;
+        private void addPoint(final long x, final long y) {
+            while (numPoints >= 2 && isStraight(xs[numPoints - 2], ys[numPoints - 2], xs[numPoints - 1],
+                    ys[numPoints - 1], x, y)) {
+                numPoints--;
+            }
+            if (numPoints == xs.length) {
+                xs = Arrays.copyOf(xs, numPoints * 2);
+                ys = Arrays.copyOf(ys, numPoints * 2);
+            }
+            xs[numPoints] = x;
+            ys[numPoints] = y;
+            numPoints++;
+        }
+
+        private Path build() {
+            // the walk ends where it started, so the same check is needed across the seam
+            int first = 0;
+            boolean changed = true;
+            while (changed && numPoints - first >= 3) {
+                changed = false;
+                if (isStraight(xs[numPoints - 2], ys[numPoints - 2], xs[numPoints - 1], ys[numPoints - 1], xs[first],
+                        ys[first])) {
+                    numPoints--;
+                    changed = true;
+                } else if (isStraight(xs[numPoints - 1], ys[numPoints - 1], xs[first], ys[first], xs[first + 1],
+                        ys[first + 1])) {
+                    first++;
+                    changed = true;
+                }
+            }
+            final Path path = new Path(numPoints - first);
+            for (int i = first; i < numPoints; i++) {
+                path.addPoint(xs[i], ys[i]);
+            }
+            return path;
+        }
 
-        private NotchConnection(final OrderedPair<BigDecimal> firstPoint, final OrderedPair<BigDecimal> cornerPoint,
-                final OrderedPair<BigDecimal> secondPoint) {
-            this.firstPoint = firstPoint;
-            this.cornerPoint = cornerPoint;
-            this.secondPoint = secondPoint;
+        /**
+         * @return true if (x2, y2) isn't a corner: the outline only has horizontal and vertical lines, so it's either
+         * the same as one of its neighbors, between them, or the end of a dead end
+         */
+        private static boolean isStraight(final long x1, final long y1, final long x2, final long y2, final long x3,
+                final long y3) {
+            return x1 == x2 && x2 == x3 || y1 == y2 && y2 == y3;
         }
     }
 }
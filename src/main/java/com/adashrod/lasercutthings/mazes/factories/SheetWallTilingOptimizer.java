@@ -1,84 +1,162 @@
 package com.adashrod.lasercutthings.mazes.factories;
 
-import com.adashrod.lasercutthings.common.OrderedPair;
+import com.adashrod.lasercutthings.common.Fixed;
+import com.adashrod.lasercutthings.common.FixedPoint;
 import com.adashrod.lasercutthings.mazes.models.Shape;
 import com.adashrod.lasercutthings.mazes.models.SheetWallModel;
 import com.adashrod.lasercutthings.mazes.models.VectorNumber;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 
-import static java.math.BigDecimal.ZERO;
-
 /**
  * This class has an optimization function that tiles the walls in the sheet so that they're
  * - tiled in a way that fits within the max width and max height
  * - tiled in a way that wastes a minimal amount of space
+ * With multiple sheets, a column that would go past the max width is started on a new sheet instead, at the sheet's
+ * top left corner; coordinates of each part are relative to the sheet it's on. The floor is never split, so it's on the
+ * first sheet. Rows are never filled past the right edge of the sheet, and a wall that doesn't fit on a sheet by itself
+ * gets a column to itself, so only parts like that are out of bounds.
  * @author adashrod@gmail.com
  */
 class SheetWallTilingOptimizer {
     private final SheetWallModel sheetWallModel;
-    private final BigDecimal separationSpace;
-    private final BigDecimal maxWidth;
-    private final BigDecimal maxHeight;
-    private final BigDecimal wallHeight;
-    private OrderedPair<BigDecimal> cursor = new OrderedPair<>(ZERO, ZERO);
-    private BigDecimal beginningOfLineX;
-    private BigDecimal currentMaxRowWidth;
+    /**
+     * value of {@link SheetWallTilingOptimizer#currentMaxRowWidth} for a new column, before its first wall is placed
+     */
+    private static final long UNSET = -1;
+
+    private final long separationSpace;
+    private final long maxWidth;
+    private final long maxHeight;
+    private final long wallHeight;
+    private final boolean multipleSheets;
+    private FixedPoint cursor = new FixedPoint(0, 0);
+    private long beginningOfLineX;
+    private long currentMaxRowWidth;
+    /**
+     * width of the parts in the current column, which can be more than the width that rows are filled to if the column
+     * starts with a part that's wider than the sheet
+     */
+    private long currentColumnWidth;
+    /**
+     * true when the current column starts with a wall that's off the sheet, so nothing else goes in it
+     */
+    private boolean columnIsFull;
+    /**
+     * height of a row, i.e. of a wall including its tabs
+     */
+    private long rowHeight;
+    private int sheetIndex;
 
-    SheetWallTilingOptimizer(final SheetWallModel sheetWallModel, final BigDecimal separationSpace,
-            final BigDecimal maxWidth, final BigDecimal maxHeight, final BigDecimal wallHeight) {
+    SheetWallTilingOptimizer(final SheetWallModel sheetWallModel, final long separationSpace, final long maxWidth,
+            final long maxHeight, final long wallHeight, final boolean multipleSheets) {
         this.sheetWallModel = sheetWallModel;
         this.separationSpace = separationSpace;
         this.maxWidth = maxWidth;
         this.maxHeight = maxHeight;
         this.wallHeight = wallHeight;
+        this.multipleSheets = multipleSheets;
     }
 
     // todo: could make this even more efficient by doing rows instead of columns after the first column
     void optimize() {
-        final BigDecimal floorWidth = sheetWallModel.floorOutline.findWidth(),
-            floorHeight = sheetWallModel.floorOutline.findHeight(),
-            wallHeight = sheetWallModel.walls.get(0).findHeight();
-        cursor = new OrderedPair<>(ZERO, floorHeight);
+        final long floorWidth = sheetWallModel.floorOutline.findWidth(),
+            floorHeight = sheetWallModel.floorOutline.findHeight();
+        rowHeight = sheetWallModel.walls.get(0).findHeight();
+        cursor = new FixedPoint(0, floorHeight);
         final List<Shape> sortedWalls = new ArrayList<>(sheetWallModel.walls);
         sheetWallModel.walls.clear();
-        sortedWalls.sort(Comparator.comparing(Shape::findWidth).reversed());
+        sortedWalls.sort(Comparator.comparingLong(Shape::findWidth).reversed());
         final Deque<Shape> shapesDeque = new LinkedList<>(sortedWalls);
-        beginningOfLineX = ZERO;
-        currentMaxRowWidth = floorWidth;
-        cursor.y = sheetWallModel.floorOutline.findHeight().add(separationSpace);
+        beginningOfLineX = 0;
+        currentMaxRowWidth = multipleSheets ? Math.min(floorWidth, maxWidth) : floorWidth;
+        currentColumnWidth = floorWidth;
+        cursor.y = sheetWallModel.floorOutline.findHeight() + separationSpace;
+        sheetIndex = 0;
+        if (multipleSheets && (floorWidth > maxWidth || floorHeight > maxHeight)) {
+            sheetWallModel.outOfBounds = true;
+        }
+        columnIsFull = false;
         while (!shapesDeque.isEmpty()) {
-            if (fitsInNewRow(wallHeight)) {
-                // add to new row in current column
-                final Shape longWall = shapesDeque.pollFirst();
-                addToCurrentRow(longWall);
-                // so that we don't overwrite cmrw when it's already been set to the floor width on the first iteration
-                if (currentMaxRowWidth == null) {
-                    currentMaxRowWidth = longWall.findWidth();
-                    if (cursor.x.compareTo(maxWidth) > 0) {
-                        sheetWallModel.outOfBounds = true;
-                    }
-                }
-            } else {
+            if (startsNewColumn(shapesDeque.peekFirst())) {
                 // end of column reached, move right to new column
-                cursor = new OrderedPair<>(cursor.x.add(currentMaxRowWidth).add(separationSpace), ZERO);
-                beginningOfLineX = cursor.x;
-                currentMaxRowWidth = null;
+                advanceColumn(shapesDeque.peekFirst());
                 continue;
             }
-            while (!shapesDeque.isEmpty()) {
-                final Shape shortWall = shapesDeque.peekLast();
-                if (fitsInCurrentRow(shortWall)) {
-                    addToCurrentRow(shapesDeque.pollLast());
-                } else {
-                    cursor = new OrderedPair<>(beginningOfLineX, cursor.y.add(wallHeight).add(separationSpace));
-                    break;
-                }
+            // add to new row in current column
+            placeRowHead(shapesDeque.pollFirst());
+            if (!columnIsFull) {
+                fillRow(shapesDeque);
+            }
+        }
+        sheetWallModel.numSheets = sheetIndex + 1;
+    }
+
+    /**
+     * @param longWall the next wall to place, which would start a new row
+     * @return true if the wall can't start a row in the current column
+     */
+    private boolean startsNewColumn(final Shape longWall) {
+        final boolean startsColumn = currentMaxRowWidth == UNSET;
+        // a wall that's taller than a sheet goes at the top of a new column anyway, or it would never be placed
+        return columnIsFull || !(fitsInNewRow(rowHeight) || multipleSheets && startsColumn) ||
+            !(startsColumn || !multipleSheets || fitsInSheetWidth(longWall));
+    }
+
+    /**
+     * moves the cursor to the top of the next column, which is on a new sheet if the next wall wouldn't fit next to
+     * the current column
+     */
+    private void advanceColumn(final Shape nextWall) {
+        final long nextColumnX = beginningOfLineX + currentColumnWidth + separationSpace;
+        if (multipleSheets && nextColumnX + nextWall.findWidth() > maxWidth) {
+            sheetIndex++;
+            cursor = new FixedPoint(0, 0);
+        } else {
+            cursor = new FixedPoint(nextColumnX, 0);
+        }
+        beginningOfLineX = cursor.x;
+        currentMaxRowWidth = UNSET;
+        columnIsFull = false;
+    }
+
+    /**
+     * places the first wall of a row, which sets the width of the rows in a new column
+     */
+    private void placeRowHead(final Shape longWall) {
+        final boolean startsColumn = currentMaxRowWidth == UNSET;
+        addToCurrentRow(longWall);
+        // so that we don't overwrite cmrw when it's already been set to the floor width on the first iteration
+        if (startsColumn) {
+            currentMaxRowWidth = currentColumnWidth = longWall.findWidth();
+            if (multipleSheets ? longWall.findMaxX() > maxWidth || longWall.findMaxY() > maxHeight :
+                    cursor.x > maxWidth) {
+                sheetWallModel.outOfBounds = true;
+                // nothing else goes in the column, since the rest of its rows would be off the sheet too
+                columnIsFull = multipleSheets;
+            }
+        } else if (multipleSheets && longWall.findWidth() > currentMaxRowWidth) {
+            // a row under the floor can start with a wall that's longer than the floor is wide
+            currentMaxRowWidth = longWall.findWidth();
+            currentColumnWidth = Math.max(currentColumnWidth, currentMaxRowWidth);
+        }
+    }
+
+    /**
+     * fills the rest of the current row with the shortest walls, then moves the cursor to the start of the next row
+     */
+    private void fillRow(final Deque<Shape> shapesDeque) {
+        while (!shapesDeque.isEmpty()) {
+            final Shape shortWall = shapesDeque.peekLast();
+            if (fitsInCurrentRow(shortWall)) {
+                addToCurrentRow(shapesDeque.pollLast());
+            } else {
+                cursor = new FixedPoint(beginningOfLineX, cursor.y + rowHeight + separationSpace);
+                break;
             }
         }
     }
@@ -86,20 +164,24 @@ class SheetWallTilingOptimizer {
     private void addToCurrentRow(final Shape wall) {
         wall.translate(cursor);
         final VectorNumber wallLabel = sheetWallModel.wallLabels.get(wall);
-        final BigDecimal half = new BigDecimal(".5");
-        wallLabel.translate(new OrderedPair<>(
-            cursor.x.add(wall.findWidth().multiply(half)).subtract(wallLabel.width.multiply(half)),
-            cursor.y.add(wallHeight.multiply(half)).subtract(wallLabel.height.multiply(half))
+        wallLabel.translate(new FixedPoint(
+            cursor.x + Fixed.half(wall.findWidth()) - Fixed.half(wallLabel.width),
+            cursor.y + Fixed.half(wallHeight) - Fixed.half(wallLabel.height)
         ));
         sheetWallModel.walls.add(wall);
-        cursor.x = cursor.x.add(wall.findWidth()).add(separationSpace);
+        sheetWallModel.wallSheets.put(wall, sheetIndex);
+        cursor.x += wall.findWidth() + separationSpace;
+    }
+
+    private boolean fitsInNewRow(final long wallHeight) {
+        return cursor.y + wallHeight <= maxHeight;
     }
 
-    private boolean fitsInNewRow(final BigDecimal wallHeight) {
-        return cursor.y.add(wallHeight).compareTo(maxHeight) <= 0;
+    private boolean fitsInSheetWidth(final Shape wall) {
+        return beginningOfLineX + wall.findWidth() <= maxWidth;
     }
 
     private boolean fitsInCurrentRow(final Shape wall) {
-        return cursor.x.subtract(beginningOfLineX).add(wall.findWidth()).compareTo(currentMaxRowWidth) <= 0;
+        return cursor.x - beginningOfLineX + wall.findWidth() <= currentMaxRowWidth;
     }
 }
@@ -0,0 +1,145 @@
+package com.adashrod.lasercutthings.mazes.factories;
+
+import com.adashrod.lasercutthings.mazes.models.Shape;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Packs parts against a skyline: each sheet keeps the outline of the bottom edges of the parts that are on it, as a
+ * list of horizontal segments from left to right. A part goes wherever its bottom edge would be highest on the sheet
+ * (and then furthest left), resting on the segments under it. Space that ends up under a part, beside a lower segment,
+ * isn't used again, so it packs less tightly than {@link MaxRectsTilingStrategy}, but each part only takes time in
+ * proportion to the number of segments.
+ * @author adashrod@gmail.com
+ */
+public class SkylineTilingStrategy extends RectanglePackingStrategy {
+    public SkylineTilingStrategy() {
+        this(true);
+    }
+
+    /**
+     * @param allowRotation whether walls may be turned 90 degrees to fit better
+     */
+    public SkylineTilingStrategy(final boolean allowRotation) {
+        this(allowRotation, LONGEST_FIRST);
+    }
+
+    /**
+     * @param allowRotation whether walls may be turned 90 degrees to fit better
+     * @param wallOrder     the order to pack the walls in, or null to pack them in the order of
+     *                      {@link com.adashrod.lasercutthings.mazes.models.SheetWallModel#walls}; defaults to longest
+     *                      first
+     */
+    public SkylineTilingStrategy(final boolean allowRotation, final Comparator<Shape> wallOrder) {
+        super(allowRotation, wallOrder);
+    }
+
+    @Override
+    Bin createBin(final long width, final long height) {
+        return new SkylineBin(width, height);
+    }
+
+    private static final class SkylineBin implements Bin {
+        private final long width;
+        private final long height;
+        private final List<Segment> skyline = new ArrayList<>();
+
+        private SkylineBin(final long width, final long height) {
+            this.width = width;
+            this.height = height;
+            skyline.add(new Segment(0, 0, width));
+        }
+
+        @Override
+        public Placement insert(final long boxWidth, final long boxHeight, final boolean canRotate) {
+            Fit best = null;
+            for (int i = 0; i < skyline.size(); i++) {
+                best = tryFit(i, boxWidth, boxHeight, false, best);
+                if (canRotate) {
+                    best = tryFit(i, boxHeight, boxWidth, true, best);
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            addSegment(best.index, best.rotated ? boxHeight : boxWidth, best.bottom);
+            return new Placement(best.x, best.y, best.rotated);
+        }
+
+        /**
+         * @return the fit of a box at the start of segment index if it's there and better than best, otherwise best
+         */
+        private Fit tryFit(final int index, final long w, final long h, final boolean rotated, final Fit best) {
+            final long y = findTop(index, w, h);
+            if (y < 0) {
+                return best;
+            }
+            final Fit fit = new Fit(skyline.get(index).x, y, y + h, rotated, index);
+            return fit.isBetterThan(best) ? fit : best;
+        }
+
+        /**
+         * @return the y coordinate of the top of a box whose left side is at the start of segment index, or -1 if it
+         * doesn't fit there
+         */
+        private long findTop(final int index, final long boxWidth, final long boxHeight) {
+            if (skyline.get(index).x + boxWidth > width) {
+                return -1;
+            }
+            long top = 0, widthLeft = boxWidth;
+            for (int i = index; widthLeft > 0; i++) {
+                final Segment segment = skyline.get(i);
+                top = Math.max(top, segment.y);
+                if (top + boxHeight > height) {
+                    return -1;
+                }
+                widthLeft -= segment.width;
+            }
+            return top;
+        }
+
+        /**
+         * puts a segment for the bottom of a new box at the start of segment index and cuts it out of the segments
+         * that it covers
+         */
+        private void addSegment(final int index, final long boxWidth, final long bottom) {
+            final Segment added = new Segment(skyline.get(index).x, bottom, boxWidth);
+            skyline.add(index, added);
+            final long end = added.x + added.width;
+            for (int i = index + 1; i < skyline.size(); ) {
+                final Segment segment = skyline.get(i);
+                if (segment.x >= end) {
+                    break;
+                }
+                final long covered = Math.min(end - segment.x, segment.width);
+                if (covered == segment.width) {
+                    skyline.remove(i);
+                } else {
+                    skyline.set(i, new Segment(segment.x + covered, segment.y, segment.width - covered));
+                    break;
+                }
+            }
+            for (int i = 0; i < skyline.size() - 1; ) {
+                final Segment segment = skyline.get(i), next = skyline.get(i + 1);
+                if (segment.y == next.y) {
+                    skyline.set(i, new Segment(segment.x, segment.y, segment.width + next.width));
+                    skyline.remove(i + 1);
+                } else {
+                    i++;
+                }
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final long x, y, width;
+
+        private Segment(final long x, final long y, final long width) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+        }
+    }
+}
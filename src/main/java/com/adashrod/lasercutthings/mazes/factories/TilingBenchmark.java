@@ -0,0 +1,107 @@
+package com.adashrod.lasercutthings.mazes.factories;
+
+import com.adashrod.lasercutthings.mazes.algorithms.PrimsAlgorithm;
+import com.adashrod.lasercutthings.mazes.models.Maze;
+import com.adashrod.lasercutthings.mazes.models.Shape;
+import com.adashrod.lasercutthings.mazes.models.SheetWallModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link TilingStrategy}s by running each one on the same mazes, on multiple sheets, and measuring how much of
+ * the sheets the parts cover and how long the tiling takes. Only parts that are within their sheet count as covering
+ * it; parts that are off their sheet are counted separately. Mazes are built with {@link PrimsAlgorithm} and seeds 1
+ * to numMazes.
+ * @author adashrod@gmail.com
+ */
+public class TilingBenchmark {
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final int HUNDRED = 100;
+    private static final long PORTFOLIO_BUDGET_MILLIS = 20;
+
+    private final Map<String, TilingStrategy> strategies = new LinkedHashMap<>();
+    private final SheetWallModelGenerator.ConfigBuilder configBuilder;
+    private final int numMazes;
+
+    /**
+     * @param configBuilder the settings to use for every strategy; its strategy and multiple sheets settings are
+     *                      replaced
+     * @param numMazes      number of mazes of each size
+     */
+    public TilingBenchmark(final SheetWallModelGenerator.ConfigBuilder configBuilder, final int numMazes) {
+        this.configBuilder = configBuilder;
+        this.numMazes = numMazes;
+        strategies.put("columns", TilingStrategy.COLUMNS);
+        strategies.put("skyline", new SkylineTilingStrategy());
+        strategies.put("maxrects", new MaxRectsTilingStrategy());
+        strategies.put("portfolio", new PortfolioTilingStrategy(PORTFOLIO_BUDGET_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    public TilingBenchmark addStrategy(final String name, final TilingStrategy strategy) {
+        strategies.put(name, strategy);
+        return this;
+    }
+
+    /**
+     * @return a table with a line for each strategy: the average number of sheets, the part of the sheets' area that's
+     * covered by the bounding boxes of parts that are within their sheet, the average number of parts that aren't, and
+     * the median and slowest time to tile one maze
+     */
+    public String run(final int numCols, final int numRows) {
+        final StringBuilder report = new StringBuilder(String.format("%-10s %-10s %8s %12s %10s %12s %12s%n", "size",
+            "strategy", "sheets", "utilization", "off sheet", "p50 (ms)", "max (ms)"));
+        for (final Map.Entry<String, TilingStrategy> strategy: strategies.entrySet()) {
+            final long[] tileNanos = new long[numMazes];
+            final int[] currentMaze = new int[1];
+            final TilingStrategy timedStrategy = (sheetWallModel, separationSpace, maxWidth, maxHeight, wallHeight,
+                    multipleSheets) -> {
+                final long start = System.nanoTime();
+                strategy.getValue().tile(sheetWallModel, separationSpace, maxWidth, maxHeight, wallHeight,
+                    multipleSheets);
+                tileNanos[currentMaze[0]] = System.nanoTime() - start;
+            };
+            final SheetWallModelGenerator.Config config = configBuilder.withTilingStrategy(timedStrategy)
+                .withMultipleSheets(true).build();
+            final long maxWidth = config.getMaxWidth(), maxHeight = config.getMaxHeight();
+            final double sheetArea = (double) maxWidth * maxHeight;
+            long numSheets = 0, numOffSheet = 0;
+            double partArea = 0;
+            for (int i = 0; i < numMazes; i++) {
+                final Maze maze = new Maze(numCols, numRows);
+                maze.build(new PrimsAlgorithm().setSeed(i + 1));
+                currentMaze[0] = i;
+                final SheetWallModel sheetWallModel = new FusedSheetWallModelGenerator(maze, config).generate();
+                numSheets += sheetWallModel.numSheets;
+                final List<Shape> parts = new ArrayList<>(sheetWallModel.walls);
+                parts.add(sheetWallModel.floorOutline);
+                for (final Shape part: parts) {
+                    if (isOnSheet(part, maxWidth, maxHeight)) {
+                        partArea += findArea(part);
+                    } else {
+                        numOffSheet++;
+                    }
+                }
+            }
+            Arrays.sort(tileNanos);
+            report.append(String.format("%-10s %-10s %8.2f %11.1f%% %10.2f %12.3f %12.3f%n", numCols + "x" + numRows,
+                strategy.getKey(), (double) numSheets / numMazes, HUNDRED * partArea / (sheetArea * numSheets),
+                (double) numOffSheet / numMazes, tileNanos[(numMazes - 1) / 2] / NANOS_PER_MILLI,
+                tileNanos[numMazes - 1] / NANOS_PER_MILLI));
+        }
+        return report.toString();
+    }
+
+    private static boolean isOnSheet(final Shape part, final long maxWidth, final long maxHeight) {
+        return part.findMinX() >= 0 && part.findMinY() >= 0 && part.findMaxX() <= maxWidth &&
+            part.findMaxY() <= maxHeight;
+    }
+
+    private static double findArea(final Shape shape) {
+        return (double) shape.findWidth() * shape.findHeight();
+    }
+}
@@ -0,0 +1,37 @@
+package com.adashrod.lasercutthings.mazes.factories;
+
+import com.adashrod.lasercutthings.mazes.models.SheetWallModel;
+
+/**
+ * A way of arranging the parts of a {@link SheetWallModel} on the sheets that they're cut from. When a strategy is
+ * called, the floor and every wall are at (0, 0) and every wall label is at (0, 0). The strategy moves the parts and
+ * the labels, orders {@link SheetWallModel#walls} the way they should be printed, and sets
+ * {@link SheetWallModel#wallSheets}, {@link SheetWallModel#numSheets}, {@link SheetWallModel#rotatedWalls} and
+ * {@link SheetWallModel#outOfBounds}.
+ * Strategies are shared by everything that uses the same {@link SheetWallModelGenerator.Config}, so they must not keep
+ * any state between calls.
+ * @author adashrod@gmail.com
+ */
+public interface TilingStrategy {
+    /**
+     * The original heuristic: the floor in the top left corner, then columns of rows of walls below and to the right of
+     * it, where each row is the longest wall that's left followed by as many of the shortest ones as fit. It never
+     * rotates parts.
+     */
+    TilingStrategy COLUMNS = (sheetWallModel, separationSpace, maxWidth, maxHeight, wallHeight, multipleSheets) ->
+        new SheetWallTilingOptimizer(sheetWallModel, separationSpace, maxWidth, maxHeight, wallHeight, multipleSheets)
+            .optimize();
+
+    /**
+     * All lengths are {@link com.adashrod.lasercutthings.common.Fixed} px.
+     * @param sheetWallModel  the parts to tile
+     * @param separationSpace minimum space between parts
+     * @param maxWidth        width of a sheet
+     * @param maxHeight       height of a sheet
+     * @param wallHeight      height of the walls, not counting their tabs, which is where their labels go
+     * @param multipleSheets  if true, parts that don't fit on one sheet go on more sheets; otherwise they go past the
+     *                        edge of the first one
+     */
+    void tile(SheetWallModel sheetWallModel, long separationSpace, long maxWidth, long maxHeight, long wallHeight,
+        boolean multipleSheets);
+}
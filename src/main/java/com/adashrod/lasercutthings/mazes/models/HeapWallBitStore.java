@@ -0,0 +1,38 @@
+package com.adashrod.lasercutthings.mazes.models;
+
+import java.util.Arrays;
+
+/**
+ * A {@link WallBitStore} that keeps all of its words in a single long[] on the heap
+ * @author adashrod@gmail.com
+ */
+class HeapWallBitStore implements WallBitStore {
+    private final long[] words;
+
+    HeapWallBitStore(final long numWords) {
+        if (numWords > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("%d words is too many to store in a long[]", numWords));
+        }
+        words = new long[(int) numWords];
+    }
+
+    @Override
+    public long numWords() {
+        return words.length;
+    }
+
+    @Override
+    public long getWord(final long index) {
+        return words[(int) index];
+    }
+
+    @Override
+    public void setWord(final long index, final long word) {
+        words[(int) index] = word;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+}
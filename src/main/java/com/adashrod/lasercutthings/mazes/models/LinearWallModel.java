@@ -3,23 +3,28 @@ package com.adashrod.lasercutthings.mazes.models;
 import com.adashrod.lasercutthings.common.OrderedPair;
 import com.adashrod.lasercutthings.mazes.Direction;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.AbstractList;
+import java.util.List;
 
+import static com.adashrod.lasercutthings.mazes.Direction.EAST;
 import static com.adashrod.lasercutthings.mazes.Direction.NORTH;
+import static com.adashrod.lasercutthings.mazes.Direction.SOUTH;
 import static com.adashrod.lasercutthings.mazes.Direction.WEST;
 
 /**
  * This model class is a representation of a maze based on a list of walls. Each wall has a start point and end point.
  * The walls should not intersect and cross; they should only intersect end-to-end with T- and L-shaped intersections.
  * A 4-way intersection should always consist of three walls. T-shaped intersections should be split into 3 parts if the
- * part of the intersection analogous to the top of the letter T is not in the favored direction
+ * part of the intersection analogous to the top of the letter T is not in the favored direction.
+ * Walls are stored in columns of primitives (see {@link LinearWallModel#getStartX(int)} etc.) rather than as objects.
+ * {@link LinearWallModel#walls} is a view of them that makes a {@link Wall} each time one is read.
  * @author adashrod@gmail.com
  */
 public class LinearWallModel {
     public final int width, height;
-    public final Collection<Wall> walls = new ArrayList<>();
+    public final List<Wall> walls = new WallView();
     public final boolean favorEwWalls;
+    private final WallColumns columns = new WallColumns();
 
     public LinearWallModel(final int width, final int height, final boolean favorEwWalls) {
         this.width = width;
@@ -28,7 +33,53 @@ public class LinearWallModel {
     }
 
     public void addWall(final Wall wall) {
-        walls.add(wall);
+        addWall(wall.start.x, wall.start.y, wall.end.x, wall.end.y);
+    }
+
+    /**
+     * @see LinearWallModel#addWall(Wall), but without making a Wall. The ends can be in either order; they're stored
+     * left-to-right or top-to-bottom.
+     */
+    public void addWall(final int startX, final int startY, final int endX, final int endY) {
+        if (startX > endX || startY > endY) {
+            columns.add(endX, endY, startX, startY, startX == endX ? SOUTH : EAST);
+        } else {
+            columns.add(startX, startY, endX, endY, startX == endX ? SOUTH : EAST);
+        }
+    }
+
+    /**
+     * appends all walls of another model, in order
+     */
+    public void addWalls(final LinearWallModel other) {
+        columns.addAll(other.columns);
+    }
+
+    public int getNumWalls() {
+        return columns.size();
+    }
+
+    public int getStartX(final int index) {
+        return columns.getStartX(index);
+    }
+
+    public int getStartY(final int index) {
+        return columns.getStartY(index);
+    }
+
+    public int getEndX(final int index) {
+        return columns.getEndX(index);
+    }
+
+    public int getEndY(final int index) {
+        return columns.getEndY(index);
+    }
+
+    /**
+     * @return true if the wall runs north-south
+     */
+    public boolean isVertical(final int index) {
+        return columns.getDirection(index) == SOUTH;
     }
 
     /**
@@ -55,4 +106,26 @@ public class LinearWallModel {
             return String.format("Wall[%s to %s]", start, end);
         }
     }
+
+    /**
+     * A list view of the columns. Changing a Wall that was read from it doesn't change the model.
+     */
+    private class WallView extends AbstractList<Wall> {
+        @Override
+        public Wall get(final int index) {
+            return new Wall(new OrderedPair<>(getStartX(index), getStartY(index)),
+                new OrderedPair<>(getEndX(index), getEndY(index)));
+        }
+
+        @Override
+        public int size() {
+            return columns.size();
+        }
+
+        @Override
+        public boolean add(final Wall wall) {
+            addWall(wall);
+            return true;
+        }
+    }
 }
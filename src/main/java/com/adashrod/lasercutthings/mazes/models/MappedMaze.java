@@ -0,0 +1,45 @@
+package com.adashrod.lasercutthings.mazes.models;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A {@link Maze} whose walls are stored in a memory-mapped file instead of on the heap, for mazes that are too big to
+ * fit in memory. Generators and model generators use it through the same {@link Maze#isOpen} and {@link Maze#openWall}
+ * methods as any other maze. Walls are laid out row by row, so traversing rows reads the file sequentially.
+ * The file is left in place after closing; opening a MappedMaze with the same file and dimensions picks up the walls
+ * that were stored in it.
+ * @author adashrod@gmail.com
+ */
+public class MappedMaze extends Maze implements Closeable {
+    private final MappedWallBitStore store;
+
+    /**
+     * @param numVerticalLanes   number of columns/width of the maze
+     * @param numHorizontalLanes number of rows/height of the maze
+     * @param fileName           the file that backs the maze; it is created if it doesn't exist
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public MappedMaze(final int numVerticalLanes, final int numHorizontalLanes, final String fileName)
+            throws IOException {
+        this(numVerticalLanes, numHorizontalLanes,
+            new MappedWallBitStore(fileName, numWordsFor(numVerticalLanes, numHorizontalLanes)));
+    }
+
+    private MappedMaze(final int numVerticalLanes, final int numHorizontalLanes, final MappedWallBitStore store) {
+        super(numVerticalLanes, numHorizontalLanes, store);
+        this.store = store;
+    }
+
+    /**
+     * writes any modified walls back to the file without closing it
+     */
+    public void flush() {
+        store.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+}
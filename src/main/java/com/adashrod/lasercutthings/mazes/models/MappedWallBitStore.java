@@ -0,0 +1,101 @@
+package com.adashrod.lasercutthings.mazes.models;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A {@link WallBitStore} whose words live in a memory-mapped file, so that the OS page cache decides which parts of the
+ * maze are in memory. A single mapping can't be larger than 2GB, so the file is mapped in fixed-size chunks.
+ * @author adashrod@gmail.com
+ */
+class MappedWallBitStore implements WallBitStore, Closeable {
+    private static final int CHUNK_SHIFT = 24;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    private static final int BYTES_PER_WORD = 8;
+    private static final int ZEROS_LENGTH = 1024;
+
+    private final FileChannel channel;
+    private final long numWords;
+    private final MappedByteBuffer[] mappings;
+    private final LongBuffer[] chunks;
+
+    /**
+     * @param fileName file to map; it is created if it doesn't exist and grown if it's too small. Any words already in
+     *                 the file are kept.
+     * @param numWords number of 64-bit words to map
+     * @throws IOException if the file can't be opened or mapped
+     */
+    MappedWallBitStore(final String fileName, final long numWords) throws IOException {
+        this.numWords = numWords;
+        channel = FileChannel.open(Paths.get(fileName), CREATE, READ, WRITE);
+        final int numChunks = (int) ((numWords + CHUNK_MASK) >>> CHUNK_SHIFT);
+        mappings = new MappedByteBuffer[numChunks];
+        chunks = new LongBuffer[numChunks];
+        try {
+            for (int i = 0; i < numChunks; i++) {
+                final long firstWord = (long) i << CHUNK_SHIFT,
+                    chunkWords = Math.min(CHUNK_MASK + 1, numWords - firstWord);
+                mappings[i] = channel.map(FileChannel.MapMode.READ_WRITE, firstWord * BYTES_PER_WORD,
+                    chunkWords * BYTES_PER_WORD);
+                chunks[i] = mappings[i].asLongBuffer();
+            }
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long numWords() {
+        return numWords;
+    }
+
+    @Override
+    public long getWord(final long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    @Override
+    public void setWord(final long index, final long word) {
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), word);
+    }
+
+    @Override
+    public void clear() {
+        final long[] zeros = new long[ZEROS_LENGTH];
+        for (final LongBuffer chunk: chunks) {
+            final LongBuffer writer = chunk.duplicate();
+            writer.clear();
+            while (writer.hasRemaining()) {
+                writer.put(zeros, 0, Math.min(zeros.length, writer.remaining()));
+            }
+        }
+    }
+
+    /**
+     * writes any modified words back to the file
+     */
+    void force() {
+        for (final MappedByteBuffer mapping: mappings) {
+            mapping.force();
+        }
+    }
+
+    /**
+     * Flushes and closes the file. The mappings themselves are only released once they are garbage-collected.
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -1,31 +1,62 @@
 package com.adashrod.lasercutthings.mazes.models;
 
+import com.adashrod.lasercutthings.mazes.Direction;
 import com.adashrod.lasercutthings.mazes.Space;
 import com.adashrod.lasercutthings.mazes.algorithms.MazeGenerator;
 
 /**
  * This maze class is a representation of a maze based on a grid of squares. Each square knows about the four walls
  * surrounding it.
+ * Walls are stored as packed bits rather than as objects: each space only owns its east and south walls, since its
+ * north and west walls are the south and east walls of its neighbors. The north walls of the first row and the west
+ * walls of the first column are kept in two extra border lanes. A set bit means that the wall is open. Each row of a
+ * plane starts on a fresh 64-bit word so that a row can be read a word at a time.
  * @author adashrod@gmail.com
  */
 public class Maze {
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = 63;
+
     private final int numCols;
     private final int numRows;
-    private final Space[][] grid;
+    private final long wordsPerRow;
+    private final long southPlaneOffset;
+    private final long northBorderOffset;
+    private final long westBorderOffset;
+    private final WallBitStore walls;
+    private Space[][] grid;
+    private String algorithmName;
+    private Long seed;
 
     public Maze(final int numVerticalLanes, final int numHorizontalLanes) {
+        this(numVerticalLanes, numHorizontalLanes, new HeapWallBitStore(numWordsFor(numVerticalLanes, numHorizontalLanes)));
+    }
+
+    Maze(final int numVerticalLanes, final int numHorizontalLanes, final WallBitStore walls) {
         numCols = numVerticalLanes;
         numRows = numHorizontalLanes;
-        grid = new Space[numRows][numCols];
-        initGrid();
+        wordsPerRow = wordsFor(numCols);
+        southPlaneOffset = numRows * wordsPerRow;
+        northBorderOffset = 2 * southPlaneOffset;
+        westBorderOffset = northBorderOffset + wordsPerRow;
+        if (walls.numWords() < numWordsFor(numCols, numRows)) {
+            throw new IllegalArgumentException(String.format("a %dx%d maze needs %d words, but the store only has %d",
+                numCols, numRows, numWordsFor(numCols, numRows), walls.numWords()));
+        }
+        this.walls = walls;
     }
 
-    private void initGrid() {
-        for (int y = 0; y < numRows; y++) {
-            for (int x = 0; x < numCols; x++) {
-                grid[y][x] = new Space();
-            }
-        }
+    private static long wordsFor(final long numBits) {
+        return (numBits + WORD_MASK) >>> WORD_SHIFT;
+    }
+
+    /**
+     * @param numCols number of columns/width of a maze
+     * @param numRows number of rows/height of a maze
+     * @return the number of 64-bit words needed to store all walls of a maze of that size
+     */
+    static long numWordsFor(final int numCols, final int numRows) {
+        return 2 * numRows * wordsFor(numCols) + wordsFor(numCols) + wordsFor(numRows);
     }
 
     /**
@@ -38,13 +69,129 @@ public class Maze {
         return x >= 0 && x < numCols && y >= 0 && y < numRows;
     }
 
+    /**
+     * @param x         column of the space
+     * @param y         row of the space
+     * @param direction which wall of the space to check
+     * @return true if the wall in the specified direction is open (no wall)
+     */
+    public boolean isOpen(final int x, final int y, final Direction direction) {
+        final long bitIndex = findBitIndex(x, y, direction);
+        return (walls.getWord(bitIndex >>> WORD_SHIFT) & 1L << bitIndex) != 0;
+    }
+
+    /**
+     * Removes a wall of a space. Since walls are shared, this also opens the matching wall of the neighboring space.
+     * @param x         column of the space
+     * @param y         row of the space
+     * @param direction which wall to remove
+     */
+    public void openWall(final int x, final int y, final Direction direction) {
+        final long bitIndex = findBitIndex(x, y, direction), wordIndex = bitIndex >>> WORD_SHIFT;
+        walls.setWord(wordIndex, walls.getWord(wordIndex) | 1L << bitIndex);
+    }
+
+    /**
+     * Maps a wall to the absolute index of its bit in {@link Maze#walls}. Note that 1L << bitIndex only uses the low 6
+     * bits of the shift distance, so callers can shift by the absolute index.
+     */
+    private long findBitIndex(final int x, final int y, final Direction direction) {
+        switch (direction) {
+            case NORTH:
+                return y == 0 ? (northBorderOffset << WORD_SHIFT) + x : planeBitIndex(southPlaneOffset, x, y - 1);
+            case EAST:
+                return planeBitIndex(0, x, y);
+            case SOUTH:
+                return planeBitIndex(southPlaneOffset, x, y);
+            case WEST:
+                return x == 0 ? (westBorderOffset << WORD_SHIFT) + y : planeBitIndex(0, x - 1, y);
+            default:
+                throw new IllegalArgumentException("invalid direction: " + String.valueOf(direction));
+        }
+    }
+
+    private long planeBitIndex(final long planeOffset, final int x, final int y) {
+        return (planeOffset + y * wordsPerRow << WORD_SHIFT) + x;
+    }
+
+    /**
+     * @return number of 64-bit words used to store one row of east or south walls
+     */
+    public int getWordsPerRow() {
+        return (int) wordsPerRow;
+    }
+
+    /**
+     * Reads the east walls of 64 consecutive spaces in a row at once
+     * @param y         row
+     * @param wordIndex which group of 64 spaces in the row, i.e. spaces 64 * wordIndex through 64 * wordIndex + 63
+     * @return a word where bit i is set if the east wall of space (64 * wordIndex + i, y) is open. Bits past the end of
+     * the row are always 0
+     */
+    public long getEastOpenWord(final int y, final int wordIndex) {
+        return walls.getWord(y * wordsPerRow + wordIndex);
+    }
+
+    /**
+     * @see Maze#getEastOpenWord(int, int), but for south walls
+     */
+    public long getSouthOpenWord(final int y, final int wordIndex) {
+        return walls.getWord(southPlaneOffset + y * wordsPerRow + wordIndex);
+    }
+
+    /**
+     * @see Maze#getEastOpenWord(int, int), but for the north walls of the first row
+     */
+    public long getNorthBorderOpenWord(final int wordIndex) {
+        return walls.getWord(northBorderOffset + wordIndex);
+    }
+
+    /**
+     * Reads the west walls of 64 consecutive spaces in the first column at once
+     * @param wordIndex which group of 64 spaces in the column, i.e. rows 64 * wordIndex through 64 * wordIndex + 63
+     * @return a word where bit i is set if the west wall of space (0, 64 * wordIndex + i) is open. Bits past the end of
+     * the column are always 0
+     */
+    public long getWestBorderOpenWord(final int wordIndex) {
+        return walls.getWord(westBorderOffset + wordIndex);
+    }
+
+    /**
+     * Opens the east walls of up to 64 consecutive spaces in a row at once
+     * @param y         row
+     * @param wordIndex which group of 64 spaces in the row
+     * @param openBits  bit i opens the east wall of space (64 * wordIndex + i, y); bits past the end of the row must
+     *                  be 0
+     */
+    public void openEastWalls(final int y, final int wordIndex, final long openBits) {
+        final long index = y * wordsPerRow + wordIndex;
+        walls.setWord(index, walls.getWord(index) | openBits);
+    }
+
+    /**
+     * @see Maze#openEastWalls(int, int, long), but for south walls
+     */
+    public void openSouthWalls(final int y, final int wordIndex, final long openBits) {
+        final long index = southPlaneOffset + y * wordsPerRow + wordIndex;
+        walls.setWord(index, walls.getWord(index) | openBits);
+    }
+
+    /**
+     * Closes every wall in the maze, reusing the existing storage
+     */
+    public void reset() {
+        walls.clear();
+    }
+
     /**
      * Randomizes this maze using the supplied algorithm
      * @param generatorAlgorithm which algorithm to use
      */
     public void build(final MazeGenerator generatorAlgorithm) {
-        initGrid();
+        reset();
         generatorAlgorithm.buildPaths(this);
+        algorithmName = generatorAlgorithm.getClass().getSimpleName();
+        seed = generatorAlgorithm.getSeed();
     }
 
     /**
@@ -61,7 +208,54 @@ public class Maze {
         return numRows;
     }
 
+    /**
+     * @return simple class name of the generator that last built this maze, or null if it hasn't been built
+     */
+    public String getAlgorithmName() {
+        return algorithmName;
+    }
+
+    /**
+     * @return the seed of the generator that last built this maze, or null if it was built without a seed
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    void setProvenance(final String algorithmName, final Long seed) {
+        this.algorithmName = algorithmName;
+        this.seed = seed;
+    }
+
+    WallBitStore getWallBitStore() {
+        return walls;
+    }
+
+    /**
+     * @param x column of the space
+     * @param y row of the space
+     * @return a {@link Space} that reads and writes through to the walls of this maze
+     */
+    public Space getSpace(final int x, final int y) {
+        return new Space(this, x, y);
+    }
+
+    /**
+     * Builds a grid of {@link Space} views the first time it's called. The views hold no wall state of their own, but
+     * this allocates one object per space, so large mazes should use {@link Maze#isOpen(int, int, Direction)} and
+     * {@link Maze#openWall(int, int, Direction)} instead.
+     * @return the grid of spaces, indexed [y][x]
+     */
     public Space[][] getGrid() {
+        if (grid == null) {
+            final Space[][] newGrid = new Space[numRows][numCols];
+            for (int y = 0; y < numRows; y++) {
+                for (int x = 0; x < numCols; x++) {
+                    newGrid[y][x] = getSpace(x, y);
+                }
+            }
+            grid = newGrid;
+        }
         return grid;
     }
 }
@@ -0,0 +1,281 @@
+package com.adashrod.lasercutthings.mazes.models;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Saves and loads {@link Maze}s in a compact, versioned binary format so that generated mazes can be archived and
+ * reloaded without running the generator again. All values are big-endian.
+ *
+ * header:
+ * - magic: the 4 ASCII bytes "LCTM"
+ * - version: int
+ * - numCols, numRows: int, int
+ * - algorithm name: unsigned short length followed by that many UTF-8 bytes; length 0 if unknown
+ * - has seed: byte, 1 or 0, followed by the seed as a long (0 if there isn't one)
+ * - encoding: byte, {@link MazeFile#ENCODING_RAW} or {@link MazeFile#ENCODING_RLE}
+ * - number of wall words: long
+ * body:
+ * - raw: each packed wall word as a long
+ * - run-length: pairs of (run length: int, word: long) that expand to the wall words
+ *
+ * The wall words are written exactly as the maze stores them, so saving and loading never creates any {@link
+ * com.adashrod.lasercutthings.mazes.Space}s.
+ * @author adashrod@gmail.com
+ */
+public final class MazeFile {
+    public static final int VERSION = 1;
+    public static final byte ENCODING_RAW = 0;
+    public static final byte ENCODING_RLE = 1;
+
+    private static final byte[] MAGIC = "LCTM".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SHIFT = 16;
+    private static final int BUFFER_SIZE = 1 << BUFFER_SHIFT;
+    private static final int MAX_NAME_LENGTH = 0xffff;
+
+    private MazeFile() {}
+
+    /**
+     * @see MazeFile#save(Maze, WritableByteChannel, boolean)
+     * @param fileName file to create or overwrite
+     */
+    public static void save(final Maze maze, final String fileName, final boolean runLengthEncode) throws IOException {
+        try (final FileChannel channel = FileChannel.open(Paths.get(fileName), CREATE, WRITE, TRUNCATE_EXISTING)) {
+            save(maze, channel, runLengthEncode);
+        }
+    }
+
+    /**
+     * Writes the maze's header and walls to a channel
+     * @param maze            maze to save
+     * @param channel         where to write to; it is not closed
+     * @param runLengthEncode true to compress runs of identical wall words; mostly useful for sparse or unbuilt mazes
+     * @throws IOException if writing fails
+     */
+    public static void save(final Maze maze, final WritableByteChannel channel, final boolean runLengthEncode)
+            throws IOException {
+        final WallBitStore walls = maze.getWallBitStore();
+        final long numWords = Maze.numWordsFor(maze.getNumCols(), maze.getNumRows());
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final byte[] name = maze.getAlgorithmName() != null ?
+            maze.getAlgorithmName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (name.length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("algorithm name is too long: " + maze.getAlgorithmName());
+        }
+        buffer.put(MAGIC).putInt(VERSION).putInt(maze.getNumCols()).putInt(maze.getNumRows())
+            .putShort((short) name.length);
+        // a name near the maximum length doesn't leave room in the buffer for the rest of the header
+        ensureRemaining(buffer, channel, name.length);
+        buffer.put(name);
+        ensureRemaining(buffer, channel, 1 + Long.BYTES + 1 + Long.BYTES);
+        buffer.put((byte) (maze.getSeed() != null ? 1 : 0)).putLong(maze.getSeed() != null ? maze.getSeed() : 0)
+            .put(runLengthEncode ? ENCODING_RLE : ENCODING_RAW)
+            .putLong(numWords);
+        if (runLengthEncode) {
+            writeRunLengthWalls(walls, numWords, buffer, channel);
+        } else {
+            writeRawWalls(walls, numWords, buffer, channel);
+        }
+        flush(buffer, channel);
+    }
+
+    private static void writeRunLengthWalls(final WallBitStore walls, final long numWords, final ByteBuffer buffer,
+            final WritableByteChannel channel) throws IOException {
+        long i = 0;
+        while (i < numWords) {
+            final long word = walls.getWord(i);
+            int runLength = 1;
+            while (i + runLength < numWords && runLength < Integer.MAX_VALUE && walls.getWord(i + runLength) == word) {
+                runLength++;
+            }
+            ensureRemaining(buffer, channel, Integer.BYTES + Long.BYTES);
+            buffer.putInt(runLength).putLong(word);
+            i += runLength;
+        }
+    }
+
+    private static void writeRawWalls(final WallBitStore walls, final long numWords, final ByteBuffer buffer,
+            final WritableByteChannel channel) throws IOException {
+        for (long i = 0; i < numWords; i++) {
+            ensureRemaining(buffer, channel, Long.BYTES);
+            buffer.putLong(walls.getWord(i));
+        }
+    }
+
+    private static void ensureRemaining(final ByteBuffer buffer, final WritableByteChannel channel,
+            final int numBytes) throws IOException {
+        if (buffer.remaining() < numBytes) {
+            flush(buffer, channel);
+        }
+    }
+
+    private static void flush(final ByteBuffer buffer, final WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @see MazeFile#load(ReadableByteChannel)
+     * @param fileName file to read
+     */
+    public static Maze load(final String fileName) throws IOException {
+        try (final FileChannel channel = FileChannel.open(Paths.get(fileName), READ)) {
+            return load(channel);
+        }
+    }
+
+    /**
+     * Reads a maze into a new heap-backed {@link Maze}
+     * @param channel where to read from; it is not closed
+     * @return the loaded maze
+     * @throws IOException if reading fails or the data isn't a maze file
+     */
+    public static Maze load(final ReadableByteChannel channel) throws IOException {
+        final Reader reader = new Reader(channel);
+        final Header header = reader.readHeader();
+        final Maze maze = new Maze(header.numCols, header.numRows);
+        reader.readWalls(header, maze);
+        return maze;
+    }
+
+    /**
+     * Reads a maze into a maze supplied by the caller, e.g. a {@link MappedMaze} for mazes that don't fit on the heap.
+     * Use {@link MazeFile#readHeader(ReadableByteChannel)} first to find the dimensions.
+     * @param channel where to read from, positioned at the start of the file; it is not closed
+     * @param maze    maze to fill in; its dimensions must match the file's
+     * @throws IOException if reading fails or the data isn't a maze file
+     */
+    public static void loadInto(final ReadableByteChannel channel, final Maze maze) throws IOException {
+        final Reader reader = new Reader(channel);
+        final Header header = reader.readHeader();
+        if (header.numCols != maze.getNumCols() || header.numRows != maze.getNumRows()) {
+            throw new IllegalArgumentException(String.format("file is %dx%d, but maze is %dx%d", header.numCols,
+                header.numRows, maze.getNumCols(), maze.getNumRows()));
+        }
+        reader.readWalls(header, maze);
+    }
+
+    /**
+     * @param channel where to read from, positioned at the start of the file; it is not closed
+     * @return the header of a maze file, without reading the walls
+     * @throws IOException if reading fails or the data isn't a maze file
+     */
+    public static Header readHeader(final ReadableByteChannel channel) throws IOException {
+        return new Reader(channel).readHeader();
+    }
+
+    /**
+     * The metadata stored at the start of a maze file
+     */
+    public static final class Header {
+        public final int version;
+        public final int numCols;
+        public final int numRows;
+        public final String algorithmName;
+        public final Long seed;
+        public final byte encoding;
+        public final long numWords;
+
+        private Header(final int version, final int numCols, final int numRows, final String algorithmName,
+                final Long seed, final byte encoding, final long numWords) {
+            this.version = version;
+            this.numCols = numCols;
+            this.numRows = numRows;
+            this.algorithmName = algorithmName;
+            this.seed = seed;
+            this.encoding = encoding;
+            this.numWords = numWords;
+        }
+    }
+
+    /**
+     * buffers reads from a channel, refilling whenever a value needs more bytes than are left
+     */
+    private static final class Reader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private Reader(final ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        private ByteBuffer require(final int numBytes) throws IOException {
+            if (buffer.remaining() < numBytes) {
+                buffer.compact();
+                while (buffer.position() < numBytes) {
+                    if (channel.read(buffer) < 0) {
+                        throw new EOFException("maze file ended early");
+                    }
+                }
+                buffer.flip();
+            }
+            return buffer;
+        }
+
+        private Header readHeader() throws IOException {
+            final byte[] magic = new byte[MAGIC.length];
+            require(magic.length).get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("not a maze file");
+            }
+            final int version = require(Integer.BYTES).getInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("unsupported maze file version %d; expected %d", version, VERSION));
+            }
+            final int numCols = require(Integer.BYTES).getInt(), numRows = require(Integer.BYTES).getInt();
+            final byte[] name = new byte[require(Short.BYTES).getShort() & MAX_NAME_LENGTH];
+            require(name.length).get(name);
+            final boolean hasSeed = require(1).get() != 0;
+            final long seed = require(Long.BYTES).getLong();
+            final byte encoding = require(1).get();
+            if (encoding != ENCODING_RAW && encoding != ENCODING_RLE) {
+                throw new IOException("unknown wall encoding: " + encoding);
+            }
+            final long numWords = require(Long.BYTES).getLong();
+            if (numCols <= 0 || numRows <= 0 || numWords != Maze.numWordsFor(numCols, numRows)) {
+                throw new IOException(String.format("inconsistent maze file dimensions: %dx%d with %d words", numCols,
+                    numRows, numWords));
+            }
+            return new Header(version, numCols, numRows, name.length > 0 ? new String(name, StandardCharsets.UTF_8) :
+                null, hasSeed ? seed : null, encoding, numWords);
+        }
+
+        private void readWalls(final Header header, final Maze maze) throws IOException {
+            final WallBitStore walls = maze.getWallBitStore();
+            if (header.encoding == ENCODING_RLE) {
+                long i = 0;
+                while (i < header.numWords) {
+                    final int runLength = require(Integer.BYTES + Long.BYTES).getInt();
+                    final long word = buffer.getLong();
+                    if (runLength <= 0 || i + runLength > header.numWords) {
+                        throw new IOException("invalid run length in maze file: " + runLength);
+                    }
+                    for (final long end = i + runLength; i < end; i++) {
+                        walls.setWord(i, word);
+                    }
+                }
+            } else {
+                for (long i = 0; i < header.numWords; i++) {
+                    walls.setWord(i, require(Long.BYTES).getLong());
+                }
+            }
+            maze.setProvenance(header.algorithmName, header.seed);
+        }
+    }
+}
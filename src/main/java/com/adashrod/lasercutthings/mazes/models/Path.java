@@ -1,32 +1,83 @@
 package com.adashrod.lasercutthings.mazes.models;
 
-import com.adashrod.lasercutthings.common.OrderedPair;
+import com.adashrod.lasercutthings.common.Fixed;
+import com.adashrod.lasercutthings.common.FixedPoint;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-
-import static java.math.BigDecimal.ZERO;
 
 /**
  * A path is a set of points. The implication is that there is a line from point 0 to point 1, point 1 to
- * point 2, ..., point n - 1 to point n, and (if isClosed == true) point n to point 0
+ * point 2, ..., point n - 1 to point n, and (if isClosed == true) point n to point 0. Coordinates are {@link Fixed}
+ * lengths in px.
+ * Points are stored in two parallel arrays of x and y coordinates (see {@link Path#getX(int)} and
+ * {@link Path#getY(int)}), which is 16 bytes per point.
+ * {@link Path#translate} and {@link Path#scale} don't touch the points. They're accumulated into one transform that's
+ * applied as coordinates are read, so placing a path costs the same no matter how many points it has; see
+ * {@link Path#applyTransform()}. {@link Path#copy()} shares the arrays with the original until either one is changed.
+ * The bounding box of the points in the arrays is kept up to date as points are added, and the transform is applied to
+ * it the same way, so the bounds are O(1).
+ * {@link Path#points} is a view of the transformed points that makes a {@link FixedPoint} each time one is read.
  */
 public class Path {
-    public final List<OrderedPair<BigDecimal>> points = new ArrayList<>();
+    private static final int INITIAL_CAPACITY = 4;
+
+    public final List<FixedPoint> points = new PointView();
     public boolean isClosed = true;
+    private long[] xs;
+    private long[] ys;
+    private int numPoints;
+    private long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+    private boolean sharesBuffers;
+    // a point (x, y) in the arrays is at (x * scaleX + translateX, y * scaleY + translateY); a null scale is 1
+    private BigDecimal scaleX;
+    private BigDecimal scaleY;
+    private long translateX;
+    private long translateY;
+
+    public Path() {
+        this(INITIAL_CAPACITY);
+    }
 
-    public Path() {}
+    /**
+     * @param capacity number of points to make room for
+     */
+    public Path(final int capacity) {
+        xs = new long[capacity];
+        ys = new long[capacity];
+    }
 
-    public Path(final OrderedPair<BigDecimal> from, final OrderedPair<BigDecimal> to) {
-        points.add(from);
-        points.add(to);
+    public Path(final FixedPoint from, final FixedPoint to) {
+        this(2);
+        addPoint(from);
+        addPoint(to);
         isClosed = false;
     }
 
-    public Path addPoint(final OrderedPair<BigDecimal> point) {
-        points.add(point);
+    /**
+     * adds a point with the coordinates of point; changing point afterward doesn't change the path
+     */
+    public Path addPoint(final FixedPoint point) {
+        return addPoint(point.x, point.y);
+    }
+
+    public Path addPoint(final long x, final long y) {
+        applyTransform();
+        if (numPoints == xs.length || sharesBuffers) {
+            final int newCapacity = numPoints == xs.length ? Math.max(INITIAL_CAPACITY, numPoints * 2) : xs.length;
+            xs = Arrays.copyOf(xs, newCapacity);
+            ys = Arrays.copyOf(ys, newCapacity);
+            sharesBuffers = false;
+        }
+        xs[numPoints] = x;
+        ys[numPoints] = y;
+        numPoints++;
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
         return this;
     }
 
@@ -35,51 +86,179 @@ public class Path {
         return this;
     }
 
-    public BigDecimal findWidth() {
-        BigDecimal minimum = null, maximum = null;
-        for (final OrderedPair<BigDecimal> point: points) {
-            if (minimum == null || minimum.compareTo(point.x) > 0) {
-                minimum = point.x;
-            }
-            if (maximum == null || maximum.compareTo(point.x) < 0) {
-                maximum = point.x;
-            }
-        }
-        if (maximum == null || minimum == null) {
-            return ZERO;
+    public int getNumPoints() {
+        return numPoints;
+    }
+
+    public long getX(final int index) {
+        return transformX(xs[checkIndex(index)]);
+    }
+
+    public long getY(final int index) {
+        return transformY(ys[checkIndex(index)]);
+    }
+
+    private long transformX(final long x) {
+        return (scaleX != null ? Fixed.multiply(x, scaleX) : x) + translateX;
+    }
+
+    private long transformY(final long y) {
+        return (scaleY != null ? Fixed.multiply(y, scaleY) : y) + translateY;
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= numPoints) {
+            throw new IndexOutOfBoundsException(String.format("index: %d, size: %d", index, numPoints));
         }
-        return maximum.subtract(minimum);
+        return index;
     }
 
-    public BigDecimal findHeight() {
-        BigDecimal minimum = null, maximum = null;
-        for (final OrderedPair<BigDecimal> point: points) {
-            if (minimum == null || minimum.compareTo(point.y) > 0) {
-                minimum = point.y;
-            }
-            if (maximum == null || maximum.compareTo(point.y) < 0) {
-                maximum = point.y;
-            }
+    /**
+     * The transform of each axis never changes the order of coordinates (or reverses it, for a negative scale), so the
+     * transformed bounds are the transformed ends of the stored bounds.
+     * @return the smallest x coordinate, or Long.MAX_VALUE if there are no points
+     */
+    public long findMinX() {
+        return numPoints == 0 ? Long.MAX_VALUE : Math.min(transformX(minX), transformX(maxX));
+    }
+
+    /**
+     * @return the largest x coordinate, or Long.MIN_VALUE if there are no points
+     */
+    public long findMaxX() {
+        return numPoints == 0 ? Long.MIN_VALUE : Math.max(transformX(minX), transformX(maxX));
+    }
+
+    /**
+     * @see Path#findMinX()
+     */
+    public long findMinY() {
+        return numPoints == 0 ? Long.MAX_VALUE : Math.min(transformY(minY), transformY(maxY));
+    }
+
+    /**
+     * @see Path#findMaxX()
+     */
+    public long findMaxY() {
+        return numPoints == 0 ? Long.MIN_VALUE : Math.max(transformY(minY), transformY(maxY));
+    }
+
+    public long findWidth() {
+        return numPoints == 0 ? 0 : findMaxX() - findMinX();
+    }
+
+    public long findHeight() {
+        return numPoints == 0 ? 0 : findMaxY() - findMinY();
+    }
+
+    public Path translate(final FixedPoint delta) {
+        return translate(delta.x, delta.y);
+    }
+
+    public Path translate(final long deltaX, final long deltaY) {
+        translateX += deltaX;
+        translateY += deltaY;
+        return this;
+    }
+
+    /**
+     * Scales about (0, 0); a translation that hasn't been applied yet is scaled too. Results are rounded to the nearest
+     * {@link Fixed} unit when they're read.
+     * @see Shape#scale
+     */
+    public Path scale(final BigDecimal factorX, final BigDecimal factorY) {
+        scaleX = scaleX != null ? scaleX.multiply(factorX) : factorX;
+        scaleY = scaleY != null ? scaleY.multiply(factorY) : factorY;
+        translateX = Fixed.multiply(translateX, factorX);
+        translateY = Fixed.multiply(translateY, factorY);
+        return this;
+    }
+
+    /**
+     * Turns the path 90 degrees clockwise about (0, 0), which moves (x, y) to (-y, x). Unlike
+     * {@link Path#translate} and {@link Path#scale}, this moves the points right away.
+     * @return this
+     */
+    public Path rotateQuarterTurn() {
+        applyTransform();
+        if (sharesBuffers) {
+            xs = xs.clone();
+            ys = ys.clone();
+            sharesBuffers = false;
         }
-        if (maximum == null || minimum == null) {
-            return ZERO;
+        final long[] newXs = ys, newYs = xs;
+        for (int i = 0; i < numPoints; i++) {
+            newXs[i] = -newXs[i];
         }
-        return maximum.subtract(minimum);
+        xs = newXs;
+        ys = newYs;
+        if (numPoints > 0) {
+            final long newMinX = -maxY, newMaxX = -minY, newMinY = minX, newMaxY = maxX;
+            minX = newMinX;
+            maxX = newMaxX;
+            minY = newMinY;
+            maxY = newMaxY;
+        }
+        return this;
     }
 
-    public Path translate(final OrderedPair<BigDecimal> delta) {
-        points.forEach((final OrderedPair<BigDecimal> point) -> {
-            point.x = point.x.add(delta.x);
-            point.y = point.y.add(delta.y);
-        });
+    /**
+     * Moves the points to where the transform puts them and resets the transform. There's no need to call this before
+     * reading; it's done before points are added.
+     * @return this
+     */
+    public Path applyTransform() {
+        if (scaleX == null && scaleY == null && translateX == 0 && translateY == 0) {
+            return this;
+        }
+        final long[] newXs = sharesBuffers ? new long[xs.length] : xs, newYs = sharesBuffers ? new long[ys.length] : ys;
+        for (int i = 0; i < numPoints; i++) {
+            newXs[i] = transformX(xs[i]);
+            newYs[i] = transformY(ys[i]);
+        }
+        if (numPoints > 0) {
+            final long newMinX = findMinX(), newMinY = findMinY(), newMaxX = findMaxX(), newMaxY = findMaxY();
+            minX = newMinX;
+            minY = newMinY;
+            maxX = newMaxX;
+            maxY = newMaxY;
+        }
+        xs = newXs;
+        ys = newYs;
+        sharesBuffers = false;
+        scaleX = scaleY = null;
+        translateX = translateY = 0;
         return this;
     }
 
+    /**
+     * @return a path with the same points and transform. The points aren't copied until one of the paths needs to
+     * change them.
+     */
+    public Path copy() {
+        final Path copy = new Path(0);
+        copy.xs = xs;
+        copy.ys = ys;
+        copy.numPoints = numPoints;
+        copy.minX = minX;
+        copy.minY = minY;
+        copy.maxX = maxX;
+        copy.maxY = maxY;
+        copy.isClosed = isClosed;
+        copy.scaleX = scaleX;
+        copy.scaleY = scaleY;
+        copy.translateX = translateX;
+        copy.translateY = translateY;
+        copy.sharesBuffers = sharesBuffers = true;
+        return copy;
+    }
+
     @Override
     public String toString() {
         final StringBuilder pointsBuilder = new StringBuilder();
-        for (final OrderedPair<BigDecimal> point: points) {
-            pointsBuilder.append("(").append(point.x).append(", ").append(point.y).append(") -> ");
+        for (int i = 0; i < numPoints; i++) {
+            pointsBuilder.append("(").append(Fixed.toString(getX(i))).append(", ").append(Fixed.toString(getY(i)))
+                .append(") -> ");
         }
         if (pointsBuilder.length() > 0) {
             pointsBuilder.delete(pointsBuilder.length() - 4, pointsBuilder.length());
@@ -91,7 +270,10 @@ public class Path {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + Objects.hashCode(points);
+        for (int i = 0; i < numPoints; i++) {
+            result = prime * result + Long.hashCode(getX(i));
+            result = prime * result + Long.hashCode(getY(i));
+        }
 
         return result;
     }
@@ -102,6 +284,35 @@ public class Path {
             return false;
         }
         final Path aPath = (Path) anObject;
-        return points.equals(aPath.points);
+        if (numPoints != aPath.numPoints) {
+            return false;
+        }
+        for (int i = 0; i < numPoints; i++) {
+            if (getX(i) != aPath.getX(i) || getY(i) != aPath.getY(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A list view of the points. Changing a point that was read from it doesn't change the path.
+     */
+    private class PointView extends AbstractList<FixedPoint> {
+        @Override
+        public FixedPoint get(final int index) {
+            return new FixedPoint(getX(index), getY(index));
+        }
+
+        @Override
+        public int size() {
+            return numPoints;
+        }
+
+        @Override
+        public boolean add(final FixedPoint point) {
+            addPoint(point);
+            return true;
+        }
     }
 }
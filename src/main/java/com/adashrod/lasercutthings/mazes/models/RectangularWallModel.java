@@ -3,18 +3,21 @@ package com.adashrod.lasercutthings.mazes.models;
 import com.adashrod.lasercutthings.common.OrderedPair;
 import com.adashrod.lasercutthings.mazes.Direction;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 
 /**
  * Similar to a {@link Maze}, this model is a grid-based representation of a maze. The difference is that this has grid
  * spaces for both path space and walls. Each space that represents part of a wall has information about whether it is
  * one or more ends of a wall or part of the middle.
+ * Walls are stored in columns of primitives (see {@link RectangularWallModel#getStartX(int)} etc.) rather than as
+ * objects. {@link RectangularWallModel#walls} is a view of them that makes a {@link Wall} each time one is read.
  * @author adashrod@gmail.com
  */
 public class RectangularWallModel {
-    public final List<Wall> walls = new ArrayList<>();
+    public final List<Wall> walls = new WallView();
     public final int width, height;
+    private final WallColumns columns = new WallColumns();
 
     public RectangularWallModel(final int width, final int height) {
         this.width = width;
@@ -22,10 +25,49 @@ public class RectangularWallModel {
     }
 
     public RectangularWallModel addWall(final Wall wall) {
-        walls.add(wall);
+        return addWall(wall.start.x, wall.start.y, wall.end.x, wall.end.y, wall.getWallDirection());
+    }
+
+    /**
+     * @see RectangularWallModel#addWall(Wall), but without making a Wall
+     */
+    public RectangularWallModel addWall(final int startX, final int startY, final int endX, final int endY,
+            final Direction wallDirection) {
+        columns.add(startX, startY, endX, endY, wallDirection);
         return this;
     }
 
+    public int getNumWalls() {
+        return columns.size();
+    }
+
+    public int getStartX(final int index) {
+        return columns.getStartX(index);
+    }
+
+    public int getStartY(final int index) {
+        return columns.getStartY(index);
+    }
+
+    public int getEndX(final int index) {
+        return columns.getEndX(index);
+    }
+
+    public int getEndY(final int index) {
+        return columns.getEndY(index);
+    }
+
+    public Direction getWallDirection(final int index) {
+        return columns.getDirection(index);
+    }
+
+    /**
+     * @see Wall#length
+     */
+    public int getLength(final int index) {
+        return Math.max(getEndY(index) - getStartY(index) + 1, getEndX(index) - getStartX(index) + 1);
+    }
+
     public static class Wall {
         public final OrderedPair<Integer> start, end;
         public final int length;
@@ -42,4 +84,26 @@ public class RectangularWallModel {
             return wallDirection;
         }
     }
+
+    /**
+     * A list view of the columns
+     */
+    private class WallView extends AbstractList<Wall> {
+        @Override
+        public Wall get(final int index) {
+            return new Wall(new OrderedPair<>(getStartX(index), getStartY(index)),
+                new OrderedPair<>(getEndX(index), getEndY(index)), getWallDirection(index));
+        }
+
+        @Override
+        public int size() {
+            return columns.size();
+        }
+
+        @Override
+        public boolean add(final Wall wall) {
+            addWall(wall);
+            return true;
+        }
+    }
 }
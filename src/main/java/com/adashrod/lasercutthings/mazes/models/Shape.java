@@ -1,112 +1,132 @@
 package com.adashrod.lasercutthings.mazes.models;
 
+import com.adashrod.lasercutthings.common.FixedPoint;
 import com.adashrod.lasercutthings.common.OrderedPair;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
-import static java.math.BigDecimal.ZERO;
-
 /**
  * A shape is a collection of paths. It can have one or many paths that are each not connected to each other.
+ * Its bounding box is kept up to date by the methods that add and transform paths, so it's O(1) to read. Changing one
+ * of the paths on its own, or adding to {@link Shape#paths} directly, isn't tracked.
  */
 public class Shape {
     public final List<Path> paths = new ArrayList<>();
-    private BigDecimal cachedWidth, cachedHeight;
+    private long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
 
     public Shape() {}
 
     public Shape(final Path path) {
-        paths.add(path);
+        addPath(path);
     }
 
     public Shape addPath(final Path path) {
         paths.add(path);
-        cachedWidth = cachedHeight = null;
+        includeBounds(path);
         return this;
     }
 
     public Shape addShape(final Shape shape) {
         paths.addAll(shape.paths);
-        cachedWidth = cachedHeight = null;
+        shape.paths.forEach(this::includeBounds);
         return this;
     }
 
-    public BigDecimal findWidth() {
-        if (cachedWidth != null) {
-            return cachedWidth;
-        }
-        BigDecimal minimum = null, maximum = null;
-        for (final Path path: paths) {
-            for (final OrderedPair<BigDecimal> point: path.points) {
-                if (minimum == null || minimum.compareTo(point.x) > 0) {
-                    minimum = point.x;
-                }
-                if (maximum == null || maximum.compareTo(point.x) < 0) {
-                    maximum = point.x;
-                }
-            }
-        }
-        if (maximum == null || minimum == null) {
-            return ZERO;
-        }
-        return cachedWidth = maximum.subtract(minimum);
+    private void includeBounds(final Path path) {
+        minX = Math.min(minX, path.findMinX());
+        minY = Math.min(minY, path.findMinY());
+        maxX = Math.max(maxX, path.findMaxX());
+        maxY = Math.max(maxY, path.findMaxY());
     }
 
-    public BigDecimal findHeight() {
-        if (cachedHeight != null) {
-            return cachedHeight;
-        }
-        BigDecimal minimum = null, maximum = null;
-        for (final Path path: paths) {
-            for (final OrderedPair<BigDecimal> point: path.points) {
-                if (minimum == null || minimum.compareTo(point.y) > 0) {
-                    minimum = point.y;
-                }
-                if (maximum == null || maximum.compareTo(point.y) < 0) {
-                    maximum = point.y;
-                }
-            }
-        }
-        if (maximum == null || minimum == null) {
-            return ZERO;
-        }
-        return cachedHeight = maximum.subtract(minimum);
+    /**
+     * @return the smallest x coordinate of all paths, or Long.MAX_VALUE if there are no points
+     */
+    public long findMinX() {
+        return minX;
+    }
+
+    /**
+     * @return the smallest y coordinate of all paths, or Long.MAX_VALUE if there are no points
+     */
+    public long findMinY() {
+        return minY;
+    }
+
+    /**
+     * @return the largest x coordinate of all paths, or Long.MIN_VALUE if there are no points
+     */
+    public long findMaxX() {
+        return maxX;
+    }
+
+    /**
+     * @return the largest y coordinate of all paths, or Long.MIN_VALUE if there are no points
+     */
+    public long findMaxY() {
+        return maxY;
+    }
+
+    public long findWidth() {
+        return minX > maxX ? 0 : maxX - minX;
+    }
+
+    public long findHeight() {
+        return minY > maxY ? 0 : maxY - minY;
     }
 
-    public Shape translate(final OrderedPair<BigDecimal> delta) {
+    public Shape translate(final FixedPoint delta) {
         paths.forEach(path -> path.translate(delta));
+        if (minX <= maxX) {
+            minX += delta.x;
+            maxX += delta.x;
+            minY += delta.y;
+            maxY += delta.y;
+        }
         return this;
     }
 
     /**
      * for now, at least, this assumes that the object is positioned at 0,0. If that's not the case, this will also end
-     * up doing an unwanted translation
+     * up doing an unwanted translation. Since the factors can be any decimal, the results are rounded to the nearest
+     * {@link com.adashrod.lasercutthings.common.Fixed} unit.
      * @param scaleFactor
      * @return
      */
     public Shape scale(final OrderedPair<BigDecimal> scaleFactor) {
+        // the bounds are recomputed from the paths so that they're rounded the same way as the points
+        minX = minY = Long.MAX_VALUE;
+        maxX = maxY = Long.MIN_VALUE;
         paths.forEach((final Path path) -> {
-            path.points.forEach((final OrderedPair<BigDecimal> point) -> {
-                point.x = point.x.multiply(scaleFactor.x);
-                point.y = point.y.multiply(scaleFactor.y);
-            });
+            path.scale(scaleFactor.x, scaleFactor.y);
+            includeBounds(path);
         });
         return this;
     }
 
+    /**
+     * Turns the shape 90 degrees clockwise about the top left corner of its bounding box, so the bounding box keeps
+     * that corner and swaps its width and height.
+     * @return this
+     */
+    public Shape rotateQuarterTurn() {
+        if (minX > maxX) {
+            return this;
+        }
+        // rotating about (0, 0) puts the bounding box at (-maxY, minX); this moves it back to (minX, minY)
+        final long deltaX = minX + maxY, deltaY = minY - minX;
+        paths.forEach((final Path path) -> path.rotateQuarterTurn().translate(deltaX, deltaY));
+        final long width = findWidth(), height = findHeight();
+        maxX = minX + height;
+        maxY = minY + width;
+        return this;
+    }
+
     public static Shape copy(final Shape shape) {
         final Shape copy = new Shape();
-        shape.paths.forEach((final Path path) -> {
-            // todo: implement Path#copy?
-            final Path pathCopy = new Path();
-            path.points.forEach((final OrderedPair<BigDecimal> point) -> {
-                pathCopy.addPoint(new OrderedPair<>(point.x, point.y));
-            });
-            pathCopy.setClosed(path.isClosed);
-            copy.addPath(pathCopy);
-        });
+        shape.paths.forEach(path -> copy.addPath(path.copy()));
         return copy;
     }
 }
@@ -2,8 +2,10 @@ package com.adashrod.lasercutthings.mazes.models;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This model class is a model of the walls and floor that compose a maze with the intention that each piece (wall or
@@ -17,6 +19,15 @@ public class SheetWallModel {
     public final List<Shape> walls = new ArrayList<>();
     public final List<VectorNumber> floorNumbers = new ArrayList<>();
     public final Map<Shape, VectorNumber> wallLabels = new HashMap<>();
+    /**
+     * index of the sheet that each wall is on; the floor and its numbers are always on sheet 0
+     */
+    public final Map<Shape, Integer> wallSheets = new HashMap<>();
+    public int numSheets = 1;
+    /**
+     * walls that were turned 90 degrees clockwise to fit on their sheet; see {@link Shape#rotateQuarterTurn()}
+     */
+    public final Set<Shape> rotatedWalls = new HashSet<>();
     public boolean outOfBounds;
 
     public SheetWallModel addShape(final Shape shape) {
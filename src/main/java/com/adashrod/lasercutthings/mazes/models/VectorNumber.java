@@ -1,19 +1,20 @@
 package com.adashrod.lasercutthings.mazes.models;
 
-import com.adashrod.lasercutthings.common.OrderedPair;
+import com.adashrod.lasercutthings.common.Fixed;
+import com.adashrod.lasercutthings.common.FixedPoint;
 
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * A VectorNumber is a model with a numeric value, and context of width, height, and position
+ * A VectorNumber is a model with a numeric value, and context of width, height, and position, which are {@link Fixed}
+ * lengths in px
  * @author adashrod@gmail.com
  */
 public class VectorNumber {
     public final int number;
-    public final BigDecimal width, height;
-    public final OrderedPair<BigDecimal> position;
+    public final long width, height;
+    public final FixedPoint position;
     public static final int CHARACTER_WIDTH = 6;
     public static final int CHARACTER_HEIGHT = 10;
 
@@ -40,140 +41,142 @@ public class VectorNumber {
         charMap.put('8', eight);
         charMap.put('9', nine);
         final Path zeroPath = new Path();
-        zeroPath.addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(3)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(3)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(7)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(7)))
+        zeroPath.addPoint(glyphPoint(5, 3))
+            .addPoint(glyphPoint(4, 1))
+            .addPoint(glyphPoint(2, 1))
+            .addPoint(glyphPoint(1, 3))
+            .addPoint(glyphPoint(1, 7))
+            .addPoint(glyphPoint(2, 9))
+            .addPoint(glyphPoint(4, 9))
+            .addPoint(glyphPoint(5, 7))
             .setClosed(true);
         zero.addPath(zeroPath);
         final Path onePathMain = new Path(), onePathBase = new Path();
-        onePathMain.addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(3), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(3), new BigDecimal(9)))
+        onePathMain.addPoint(glyphPoint(2, 2))
+            .addPoint(glyphPoint(3, 1))
+            .addPoint(glyphPoint(3, 9))
             .setClosed(false);
-        onePathBase.addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(9)))
+        onePathBase.addPoint(glyphPoint(2, 9))
+            .addPoint(glyphPoint(4, 9))
             .setClosed(false);
         one.addPath(onePathMain).addPath(onePathBase);
         final Path twoPath = new Path();
-        twoPath.addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(4)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(9)))
+        twoPath.addPoint(glyphPoint(1, 2))
+            .addPoint(glyphPoint(2, 1))
+            .addPoint(glyphPoint(4, 1))
+            .addPoint(glyphPoint(5, 2))
+            .addPoint(glyphPoint(5, 4))
+            .addPoint(glyphPoint(1, 9))
+            .addPoint(glyphPoint(5, 9))
             .setClosed(false);
         two.addPath(twoPath);
         final Path threePathTop = new Path(), threePathBottom = new Path();
-        threePathTop.addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(4)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(5)))
+        threePathTop.addPoint(glyphPoint(1, 2))
+            .addPoint(glyphPoint(2, 1))
+            .addPoint(glyphPoint(4, 1))
+            .addPoint(glyphPoint(5, 2))
+            .addPoint(glyphPoint(5, 4))
+            .addPoint(glyphPoint(4, 5))
+            .addPoint(glyphPoint(2, 5))
             .setClosed(false);
-        threePathBottom.addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(6)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(8)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(8)))
+        threePathBottom.addPoint(glyphPoint(4, 5))
+            .addPoint(glyphPoint(5, 6))
+            .addPoint(glyphPoint(5, 8))
+            .addPoint(glyphPoint(4, 9))
+            .addPoint(glyphPoint(2, 9))
+            .addPoint(glyphPoint(1, 8))
             .setClosed(false);
         three.addPath(threePathTop).addPath(threePathBottom);
-        final Path fourPathBent = new Path(), fourPathStem = new Path(new OrderedPair<>(new BigDecimal(4), new BigDecimal(1)),
-            new OrderedPair<>(new BigDecimal(4), new BigDecimal(9)));
-        fourPathBent.addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(5)))
+        final Path fourPathBent = new Path(), fourPathStem = new Path(glyphPoint(4, 1), glyphPoint(4, 9));
+        fourPathBent.addPoint(glyphPoint(4, 1))
+            .addPoint(glyphPoint(1, 5))
+            .addPoint(glyphPoint(5, 5))
             .setClosed(false);
         four.addPath(fourPathBent).addPath(fourPathStem);
         final Path fivePath = new Path();
-        fivePath.addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(6)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(8)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(8)))
+        fivePath.addPoint(glyphPoint(5, 1))
+            .addPoint(glyphPoint(1, 1))
+            .addPoint(glyphPoint(1, 5))
+            .addPoint(glyphPoint(4, 5))
+            .addPoint(glyphPoint(5, 6))
+            .addPoint(glyphPoint(5, 8))
+            .addPoint(glyphPoint(4, 9))
+            .addPoint(glyphPoint(2, 9))
+            .addPoint(glyphPoint(1, 8))
             .setClosed(false);
         five.addPath(fivePath);
         final Path sixPath = new Path();
-        sixPath.addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(8)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(8)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(6)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(6)))
+        sixPath.addPoint(glyphPoint(5, 2))
+            .addPoint(glyphPoint(4, 1))
+            .addPoint(glyphPoint(2, 1))
+            .addPoint(glyphPoint(1, 2))
+            .addPoint(glyphPoint(1, 8))
+            .addPoint(glyphPoint(2, 9))
+            .addPoint(glyphPoint(4, 9))
+            .addPoint(glyphPoint(5, 8))
+            .addPoint(glyphPoint(5, 6))
+            .addPoint(glyphPoint(4, 5))
+            .addPoint(glyphPoint(2, 5))
+            .addPoint(glyphPoint(1, 6))
             .setClosed(false);
         six.addPath(sixPath);
         final Path sevenPath = new Path();
-        sevenPath.addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(9)))
+        sevenPath.addPoint(glyphPoint(1, 1))
+            .addPoint(glyphPoint(5, 1))
+            .addPoint(glyphPoint(2, 9))
             .setClosed(false);
         seven.addPath(sevenPath);
         final Path eightPathTop = new Path(), eightPathBottom = new Path();
-        eightPathTop.addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(4)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(4)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(5)))
+        eightPathTop.addPoint(glyphPoint(4, 5))
+            .addPoint(glyphPoint(5, 4))
+            .addPoint(glyphPoint(5, 2))
+            .addPoint(glyphPoint(4, 1))
+            .addPoint(glyphPoint(2, 1))
+            .addPoint(glyphPoint(1, 2))
+            .addPoint(glyphPoint(1, 4))
+            .addPoint(glyphPoint(2, 5))
             .setClosed(true);
-        eightPathBottom.addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(6)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(8)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(8)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(6)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(5)))
+        eightPathBottom.addPoint(glyphPoint(4, 5))
+            .addPoint(glyphPoint(5, 6))
+            .addPoint(glyphPoint(5, 8))
+            .addPoint(glyphPoint(4, 9))
+            .addPoint(glyphPoint(2, 9))
+            .addPoint(glyphPoint(1, 8))
+            .addPoint(glyphPoint(1, 6))
+            .addPoint(glyphPoint(2, 5))
             .setClosed(false);
         eight.addPath(eightPathTop).addPath(eightPathBottom);
         final Path ninePath = new Path();
-        ninePath.addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(4)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(5)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(4)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(1)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(2)))
-            .addPoint(new OrderedPair<>(new BigDecimal(5), new BigDecimal(8)))
-            .addPoint(new OrderedPair<>(new BigDecimal(4), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(2), new BigDecimal(9)))
-            .addPoint(new OrderedPair<>(new BigDecimal(1), new BigDecimal(8)))
+        ninePath.addPoint(glyphPoint(5, 4))
+            .addPoint(glyphPoint(4, 5))
+            .addPoint(glyphPoint(2, 5))
+            .addPoint(glyphPoint(1, 4))
+            .addPoint(glyphPoint(1, 2))
+            .addPoint(glyphPoint(2, 1))
+            .addPoint(glyphPoint(4, 1))
+            .addPoint(glyphPoint(5, 2))
+            .addPoint(glyphPoint(5, 8))
+            .addPoint(glyphPoint(4, 9))
+            .addPoint(glyphPoint(2, 9))
+            .addPoint(glyphPoint(1, 8))
             .setClosed(false);
         nine.addPath(ninePath);
     }
 
-    public VectorNumber(final int number, final BigDecimal width, final BigDecimal height,
-            final OrderedPair<BigDecimal> position) {
+    public VectorNumber(final int number, final long width, final long height, final FixedPoint position) {
         this.number = number;
         this.width = width;
         this.height = height;
         this.position = position;
     }
 
-    public VectorNumber translate(final OrderedPair<BigDecimal> delta) {
-        position.x = position.x.add(delta.x);
-        position.y = position.y.add(delta.y);
+    private static FixedPoint glyphPoint(final int x, final int y) {
+        return new FixedPoint(Fixed.of(x), Fixed.of(y));
+    }
+
+    public VectorNumber translate(final FixedPoint delta) {
+        position.x += delta.x;
+        position.y += delta.y;
         return this;
     }
 
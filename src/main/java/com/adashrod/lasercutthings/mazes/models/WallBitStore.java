@@ -0,0 +1,22 @@
+package com.adashrod.lasercutthings.mazes.models;
+
+/**
+ * Word-addressed storage for the packed wall bits of a {@link Maze}. The maze decides what each bit means; a store only
+ * has to hold 64-bit words, all of which start out as 0.
+ * @author adashrod@gmail.com
+ */
+interface WallBitStore {
+    /**
+     * @return number of 64-bit words this store holds
+     */
+    long numWords();
+
+    long getWord(long index);
+
+    void setWord(long index, long word);
+
+    /**
+     * sets every word back to 0
+     */
+    void clear();
+}
@@ -12,7 +12,8 @@ import java.util.Objects;
  * @author adashrod@gmail.com
  */
 public class Path {
-    public String style = "stroke:#000000;fill:none";//"fill-rule:evenodd;stroke:#000000;stroke-width:2px;stroke-linecap:butt;stroke-linejoin:miter;stroke-opacity:1";
+    public static final String DEFAULT_STYLE = "stroke:#000000;fill:none";
+    public String style = DEFAULT_STYLE;//"fill-rule:evenodd;stroke:#000000;stroke-width:2px;stroke-linecap:butt;stroke-linejoin:miter;stroke-opacity:1";
     public OrderedPair<BigDecimal> start;
     public OrderedPair<BigDecimal> end;
     public String id;
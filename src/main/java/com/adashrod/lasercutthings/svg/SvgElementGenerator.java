@@ -1,5 +1,7 @@
 package com.adashrod.lasercutthings.svg;
 
+import com.adashrod.lasercutthings.common.Fixed;
+import com.adashrod.lasercutthings.common.FixedPoint;
 import com.adashrod.lasercutthings.common.OrderedPair;
 import com.adashrod.lasercutthings.mazes.models.Shape;
 import com.adashrod.lasercutthings.mazes.models.VectorNumber;
@@ -9,7 +11,6 @@ import java.math.MathContext;
 
 import static com.adashrod.lasercutthings.mazes.models.VectorNumber.CHARACTER_HEIGHT;
 import static com.adashrod.lasercutthings.mazes.models.VectorNumber.CHARACTER_WIDTH;
-import static java.math.BigDecimal.ZERO;
 
 /**
  * A simple, not very flexible utility for serializing SVG elements to strings for manual SVG file construction.
@@ -17,15 +18,53 @@ import static java.math.BigDecimal.ZERO;
  * @author adashrod@gmail.com
  */
 public class SvgElementGenerator {
+    /**
+     * This is where the {@link Fixed} coordinates of a model are converted to decimals
+     */
     public Path modelPathToSvgPath(final com.adashrod.lasercutthings.mazes.models.Path path) {
         final Path result = new Path();
-        result.multiPartPath.addAll(path.points);
+        for (int i = 0; i < path.getNumPoints(); i++) {
+            result.multiPartPath.add(new OrderedPair<>(Fixed.toBigDecimal(path.getX(i)),
+                Fixed.toBigDecimal(path.getY(i))));
+        }
         if (path.isClosed) {
-            result.multiPartPath.add(path.points.get(0));
+            result.multiPartPath.add(result.multiPartPath.get(0));
         }
         return result;
     }
 
+    /**
+     * Same as pathToSvgText(modelPathToSvgPath(path), fpPrecision) with the style replaced, but reads the coordinates
+     * straight out of the path's buffers instead of making an SVG path first
+     * @param path        the path to serialize
+     * @param style       value of the style attribute, e.g. {@link Path#DEFAULT_STYLE}
+     * @param fpPrecision number of significant digits of coordinates
+     * @return a path element
+     */
+    public String modelPathToSvgText(final com.adashrod.lasercutthings.mazes.models.Path path, final String style,
+            final int fpPrecision) {
+        final MathContext mc = new MathContext(fpPrecision);
+        final StringBuilder dAttrBuilder = new StringBuilder();
+        dAttrBuilder.append("M");
+        for (int i = 0; i < path.getNumPoints(); i++) {
+            appendPoint(dAttrBuilder, path.getX(i), path.getY(i), mc);
+        }
+        final int last = path.getNumPoints() - 1;
+        if (path.isClosed) {
+            appendPoint(dAttrBuilder, path.getX(0), path.getY(0), mc);
+            dAttrBuilder.append(" Z");
+        } else if (path.getX(0) == path.getX(last) && path.getY(0) == path.getY(last)) {
+            dAttrBuilder.append(" Z");
+        }
+        return String.format("<path style=\"%s\" d=\"%s\" id=\"\"/>", style, dAttrBuilder.toString());
+    }
+
+    private static void appendPoint(final StringBuilder dAttrBuilder, final long x, final long y,
+            final MathContext mc) {
+        dAttrBuilder.append(" ").append(Fixed.toBigDecimal(x).round(mc).stripTrailingZeros()).append(",")
+            .append(Fixed.toBigDecimal(y).round(mc).stripTrailingZeros());
+    }
+
     public String pathToSvgText(final Path path, final int fpPrecision) {
         final MathContext mc = new MathContext(fpPrecision);
         final StringBuilder dAttrBuilder = new StringBuilder();
@@ -49,6 +88,19 @@ public class SvgElementGenerator {
         return String.format("<path style=\"%s\" d=\"%s\" id=\"%s\"/>", path.style, dAttrBuilder.toString(), path.id != null ? path.id : "");
     }
 
+    /**
+     * @param id          id of the element to place, e.g. one in a &lt;defs/&gt;
+     * @param x           {@link Fixed} x offset
+     * @param y           {@link Fixed} y offset
+     * @param fpPrecision number of significant digits of the offsets
+     * @return a &lt;use/&gt; element; the xlink namespace has to be declared by an enclosing element
+     */
+    public String useToSvgText(final String id, final long x, final long y, final int fpPrecision) {
+        final MathContext mc = new MathContext(fpPrecision);
+        return String.format("<use xlink:href=\"#%s\" x=\"%s\" y=\"%s\"/>", id,
+            Fixed.toBigDecimal(x).round(mc).stripTrailingZeros(), Fixed.toBigDecimal(y).round(mc).stripTrailingZeros());
+    }
+
     public String circleToSvgText(final Circle circle, final int fpPrecision) {
         final MathContext mc = new MathContext(fpPrecision);
         return String.format("<circle cx=\"%s\" cy=\"%s\" r=\"%s\" stroke=\"black\" stroke-width=\"1\" fill=\"none\" />",
@@ -69,17 +121,17 @@ public class SvgElementGenerator {
         for (int i = 0; i < vnStr.length(); i++) {
             final char c = vnStr.charAt(i);
             final Shape charShape = VectorNumber.characterToShape(c);
-            final BigDecimal currentWidth = new BigDecimal(i * CHARACTER_WIDTH);
-            charShape.translate(new OrderedPair<>(currentWidth, ZERO));
+            charShape.translate(new FixedPoint(Fixed.of(i * CHARACTER_WIDTH), 0));
             stringShape.addShape(charShape);
         }
-        stringShape.scale(new OrderedPair<>(vectorNumber.width.divide(new BigDecimal(CHARACTER_WIDTH * vnStr.length()), mc),
-            vectorNumber.height.divide(new BigDecimal(CHARACTER_HEIGHT), mc))).translate(vectorNumber.position);
+        stringShape.scale(new OrderedPair<>(
+            Fixed.toBigDecimal(vectorNumber.width).divide(new BigDecimal(CHARACTER_WIDTH * vnStr.length()), mc),
+            Fixed.toBigDecimal(vectorNumber.height).divide(new BigDecimal(CHARACTER_HEIGHT), mc)))
+            .translate(vectorNumber.position);
         final StringBuilder svgTextBuilder = new StringBuilder();
+        final String style = Path.DEFAULT_STYLE.replace("000000", "0000ff");
         stringShape.paths.forEach((final com.adashrod.lasercutthings.mazes.models.Path path) -> {
-            final Path svgPath = modelPathToSvgPath(path);
-            svgPath.style = svgPath.style.replace("000000", "0000ff");
-            svgTextBuilder.append(pathToSvgText(svgPath, fpPrecision));
+            svgTextBuilder.append(modelPathToSvgText(path, style, fpPrecision));
         });
         return svgTextBuilder.toString();
     }